@@ -0,0 +1,330 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentBenchmarks class measures the time and memory allocated by the main
+//        operations of ExceptionalCourseEnrollment and StudentRecord, at roster sizes from 15 to
+//        100,000 students, so that every performance change can be measured.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/en/java/javase/17/docs/api/jdk.management/com/sun/management/ThreadMXBean.html
+//                 -Referenced for measuring the bytes allocated by the current thread
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+
+/**
+ * Each benchmark case prepares a course of a given size outside of the measurement, then runs a
+ * measured body that reports how many operations it performed. Bodies are repeated until a round
+ * lasts long enough to be timed reliably; a few warmup rounds are run before the measured rounds.
+ * The results are printed as one line per case and size: <BR>
+ * case size ns/op B/op
+ *
+ * The cases run with System.out discarded, so that anything printed to the console does not
+ * dominate the measurement.
+ *
+ * Usage: java EnrollmentBenchmarks [case...] runs the named cases only, all of them by default.
+ */
+public class EnrollmentBenchmarks {
+  /** Roster sizes every case is measured at */
+  private static final int[] SIZES = {15, 250, 1_000, 10_000, 100_000};
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int MEASURED_ROUNDS = 5;
+  /** Shortest time in nanoseconds a round lasts, bodies are repeated until it is reached */
+  private static final long ROUND_NANOS = 200_000_000L;
+
+  /** Prevents the JIT from eliminating the measured calls as dead code */
+  private static long sink;
+
+  /** The body of a benchmark, run once per repetition and measured */
+  private interface Body {
+    /**
+     * Runs the measured operations
+     *
+     * @return the number of operations performed
+     * @throws Exception if an operation fails
+     */
+    long run() throws Exception;
+  }
+
+  /** A benchmark case, preparing a fresh body for each repetition */
+  private interface Case {
+    /**
+     * Prepares the state for one repetition, outside of the measurement
+     *
+     * @param size the roster size to measure at
+     * @return the body to measure
+     * @throws Exception if the state could not be prepared
+     */
+    Body prepare(int size) throws Exception;
+  }
+
+  /** Students used by every case, generated once for the largest size */
+  private static StudentRecord[] students;
+  /** Students that are not in any course, for the waitlist cases */
+  private static StudentRecord[] others;
+  /** Temporary file used by the save and load cases */
+  private static File rosterFile;
+  /** Number of students currently saved in rosterFile by the load cases, -1 if unknown */
+  private static int savedSize = -1;
+
+  /**
+   * Creates an empty course able to hold size students in both the roster and the waitlist, past
+   * the limit of 250 of the public constructor
+   *
+   * @param size the capacity of the roster and waitlist
+   * @return the empty course
+   */
+  private static ExceptionalCourseEnrollment emptyCourse(int size) {
+    return ExceptionalCourseEnrollment.restore("BENCH", size, size,
+        new ArrayList<StudentRecord>(), new ArrayList<StudentRecord>());
+  }
+
+  /**
+   * Creates a course with a full roster of the first size students
+   *
+   * @param size the number of enrolled students
+   * @return the full course
+   */
+  private static ExceptionalCourseEnrollment fullCourse(int size) {
+    return ExceptionalCourseEnrollment.restore("BENCH", size, size,
+        Arrays.asList(students).subList(0, size), new ArrayList<StudentRecord>());
+  }
+
+  /**
+   * Saves a full roster of size students to rosterFile for the load cases, unless it already holds
+   * one
+   *
+   * @param size the number of students to save
+   * @throws IOException if the roster could not be saved
+   */
+  private static void saveFullRoster(int size) throws IOException {
+    if(savedSize != size) {
+      fullCourse(size).saveRoster(rosterFile);
+      savedSize = size;
+    }
+  }
+
+  /**
+   * Returns every benchmark case by name, in the order they are run
+   *
+   * @return the benchmark cases
+   */
+  private static LinkedHashMap<String, Case> cases() {
+    LinkedHashMap<String, Case> cases = new LinkedHashMap<String, Case>();
+    cases.put("enrollOneStudent", size -> {
+      ExceptionalCourseEnrollment course = emptyCourse(size);
+      return () -> {
+        for(int i = 0; i < size; i++) {
+          course.enrollOneStudent(students[i]);
+        }
+        return size;
+      };
+    });
+    cases.put("tryEnroll", size -> {
+      ExceptionalCourseEnrollment course = emptyCourse(size);
+      return () -> {
+        for(int i = 0; i < size; i++) {
+          sink += course.tryEnroll(students[i]).ordinal();
+        }
+        return size;
+      };
+    });
+    cases.put("addWaitlist", size -> {
+      ExceptionalCourseEnrollment course = fullCourse(size);
+      return () -> {
+        for(int i = 0; i < size; i++) {
+          course.addWaitlist(others[i]);
+        }
+        return size;
+      };
+    });
+    cases.put("dropCourse", size -> {
+      ExceptionalCourseEnrollment course = fullCourse(size);
+      return () -> {
+        for(int i = 0; i < size; i++) {
+          course.dropCourse(students[i]);
+        }
+        return size;
+      };
+    });
+    cases.put("searchById", size -> {
+      ExceptionalCourseEnrollment course = fullCourse(size);
+      String[] ids = new String[1000];
+      Random random = new Random(size);
+      for(int i = 0; i < ids.length; i++) {
+        ids[i] = students[random.nextInt(size)].getCampusID();
+      }
+      return () -> {
+        for(String id : ids) {
+          sink += course.searchById(id).getName().length();
+        }
+        return ids.length;
+      };
+    });
+    cases.put("StudentRecord.equals", size -> () -> {
+      int matches = 0;
+      for(int i = 0; i < size; i++) {
+        if(students[i].equals(students[(i * 7 + 1) % size])) {
+          matches++;
+        }
+      }
+      sink += matches;
+      return size;
+    });
+    cases.put("saveRoster", size -> {
+      ExceptionalCourseEnrollment course = fullCourse(size);
+      savedSize = -1;
+      return () -> {
+        course.saveRoster(rosterFile);
+        return 1;
+      };
+    });
+    cases.put("loadRoster", size -> {
+      saveFullRoster(size);
+      ExceptionalCourseEnrollment course = emptyCourse(size);
+      return () -> {
+        course.loadRoster(rosterFile);
+        return 1;
+      };
+    });
+    cases.put("bulkLoadRoster", size -> {
+      saveFullRoster(size);
+      ExceptionalCourseEnrollment course = emptyCourse(size);
+      return () -> {
+        sink += course.bulkLoadRoster(rosterFile).getLoaded();
+        return 1;
+      };
+    });
+    cases.put("toString", size -> {
+      ExceptionalCourseEnrollment course = fullCourse(size);
+      return () -> {
+        sink += course.toString().length();
+        return 1;
+      };
+    });
+    return cases;
+  }
+
+  /**
+   * Runs one round of a case, repeating its body until the round lasts long enough
+   *
+   * @param benchmark the case to run
+   * @param size      the roster size to run it at
+   * @return the elapsed nanoseconds, allocated bytes and operations of the round
+   * @throws Exception if the case fails
+   */
+  private static long[] runRound(Case benchmark, int size) throws Exception {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long elapsed = 0;
+    long bytes = 0;
+    long operations = 0;
+    while(elapsed < ROUND_NANOS) {
+      Body body = benchmark.prepare(size);
+      long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+      long start = System.nanoTime();
+      operations += body.run();
+      elapsed += System.nanoTime() - start;
+      bytes += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+    }
+    return new long[] {elapsed, bytes, operations};
+  }
+
+  /**
+   * Measures a case at one size and prints the average time and allocation per operation
+   *
+   * @param name      the name of the case
+   * @param benchmark the case to measure
+   * @param size      the roster size to measure at
+   * @throws Exception if the case fails
+   */
+  private static void measure(String name, Case benchmark, int size) throws Exception {
+    for(int i = 0; i < WARMUP_ROUNDS; i++) {
+      runRound(benchmark, size);
+    }
+    long elapsed = 0;
+    long bytes = 0;
+    long operations = 0;
+    for(int i = 0; i < MEASURED_ROUNDS; i++) {
+      long[] round = runRound(benchmark, size);
+      elapsed += round[0];
+      bytes += round[1];
+      operations += round[2];
+    }
+    System.err.printf("%-22s %8d %14.1f ns/op %14.1f B/op%n", name, size,
+        (double) elapsed / operations, (double) bytes / operations);
+  }
+
+  /**
+   * Generates the students used by the benchmarks
+   *
+   * @param count   the number of students
+   * @param firstID the campusID of the first student
+   * @return the generated students
+   * @throws DataFormatException if a generated student record is not valid
+   */
+  private static StudentRecord[] generate(int count, long firstID) throws DataFormatException {
+    StudentRecord[] generated = new StudentRecord[count];
+    for(int i = 0; i < count; i++) {
+      generated[i] = new StudentRecord("student" + i, "student" + i + "@wisc.edu", firstID + i,
+          true);
+    }
+    return generated;
+  }
+
+  /**
+   * Main method to run the benchmarks. Results are printed to System.err, since System.out is
+   * discarded while the cases run.
+   *
+   * @param args names of the cases to run, all of them if empty
+   * @throws Exception if a case fails
+   */
+  public static void main(String[] args) throws Exception {
+    int largest = SIZES[SIZES.length - 1];
+    students = generate(largest, 1000000000L);
+    others = generate(largest, 2000000000L);
+    rosterFile = File.createTempFile("bench_roster", ".txt");
+    rosterFile.deleteOnExit();
+
+    LinkedHashMap<String, Case> cases = cases();
+    List<String> selected = args.length == 0 ? new ArrayList<String>(cases.keySet())
+        : Arrays.asList(args);
+    PrintStream console = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      for(String name : selected) {
+        Case benchmark = cases.get(name);
+        if(benchmark == null) {
+          System.err.println("Unknown benchmark case: " + name + ", expected one of "
+              + cases.keySet());
+          continue;
+        }
+        for(int size : SIZES) {
+          measure(name, benchmark, size);
+        }
+      }
+    }
+    finally {
+      System.setOut(console);
+    }
+    System.err.println("(sink " + sink + ")");
+  }
+}
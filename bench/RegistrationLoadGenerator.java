@@ -0,0 +1,397 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The RegistrationLoadGenerator class drives a CourseCatalog with registration-day
+//        traffic: enroll, waitlist, drop and switch-course operations across many courses and
+//        threads, synthesized with a skew towards hot courses or replayed from a trace file. It
+//        reports the throughput and the latency percentiles of each kind of operation.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://en.wikipedia.org/wiki/Zipf%27s_law
+//                 -Referenced for skewing the traffic towards a few hot courses
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+/**
+ * Usage: java RegistrationLoadGenerator [option value]... with the options: <BR>
+ * --courses N     number of courses (default 1000) <BR>
+ * --students N    number of distinct students (default 100000) <BR>
+ * --threads N     number of client threads (default 8) <BR>
+ * --operations N  total number of operations to synthesize (default 2000000) <BR>
+ * --skew S        Zipf exponent of the course popularity, 0 for uniform (default 1.0) <BR>
+ * --seed N        seed of the synthesized traffic (default 42) <BR>
+ * --record FILE   also write the synthesized operations to a trace file <BR>
+ * --trace FILE    replay the operations of a trace file instead of synthesizing them <BR>
+ * --metrics N     enable EnrollmentMetrics, dump them every N seconds and at the end (default 0,
+ *                 disabled), to compare the throughput with and without instrumentation
+ *
+ * A trace file holds one operation per line, with the course index and student index: <BR>
+ * E course student (enroll), W course student (waitlist), D course student (drop), S course
+ * (switch to the course, looked up in the catalog by name)
+ *
+ * Operations are generated before the clock starts, so only the calls to the catalog and courses
+ * are measured. When a trace is replayed, all the operations of one course go to the same thread
+ * so that they are applied in the order of the trace.
+ */
+public class RegistrationLoadGenerator {
+  /** Kinds of operations, also the letters used in trace files */
+  private static final char[] TYPES = {'E', 'W', 'D', 'S'};
+  private static final String[] TYPE_NAMES = {"enroll", "waitlist", "drop", "switch"};
+  /** Share of each kind of operation in synthesized traffic, in percent */
+  private static final int[] MIX = {50, 20, 20, 10};
+  /** Capacities of every generated course, the largest the constructor accepts */
+  private static final int ENROLLMENT_CAPACITY = 250;
+  private static final int WAITLIST_CAPACITY = 250;
+
+  /** Operations run by one thread, as parallel arrays */
+  private static class Operations {
+    private byte[] types = new byte[1024];
+    private int[] courses = new int[1024];
+    private int[] students = new int[1024];
+    private int size;
+
+    private void add(int type, int course, int student) {
+      if(size == types.length) {
+        types = Arrays.copyOf(types, size * 2);
+        courses = Arrays.copyOf(courses, size * 2);
+        students = Arrays.copyOf(students, size * 2);
+      }
+      types[size] = (byte) type;
+      courses[size] = course;
+      students[size] = student;
+      size++;
+    }
+  }
+
+  /** Settings read from the command line */
+  private int courseCount = 1000;
+  private int studentCount = 100_000;
+  private int threadCount = 8;
+  private long operationCount = 2_000_000;
+  private double skew = 1.0;
+  private long seed = 42;
+  private File recordFile;
+  private File traceFile;
+  private long metricsPeriod;
+
+  /**
+   * Reads the command line options
+   *
+   * @param args the command line arguments
+   * @throws IllegalArgumentException if an option is unknown or has no value
+   */
+  private RegistrationLoadGenerator(String[] args) {
+    for(int i = 0; i < args.length; i += 2) {
+      if(i + 1 >= args.length) {
+        throw new IllegalArgumentException("Missing value for " + args[i]);
+      }
+      String value = args[i + 1];
+      switch(args[i]) {
+        case "--courses":
+          courseCount = Integer.parseInt(value);
+          break;
+        case "--students":
+          studentCount = Integer.parseInt(value);
+          break;
+        case "--threads":
+          threadCount = Integer.parseInt(value);
+          break;
+        case "--operations":
+          operationCount = Long.parseLong(value);
+          break;
+        case "--skew":
+          skew = Double.parseDouble(value);
+          break;
+        case "--seed":
+          seed = Long.parseLong(value);
+          break;
+        case "--record":
+          recordFile = new File(value);
+          break;
+        case "--trace":
+          traceFile = new File(value);
+          break;
+        case "--metrics":
+          metricsPeriod = Long.parseLong(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown option " + args[i]);
+      }
+    }
+  }
+
+  /**
+   * Builds the cumulative distribution of the course popularity, course i having a weight of
+   * 1 / (i + 1)^skew
+   *
+   * @return the cumulative probabilities, the last one being 1
+   */
+  private double[] courseDistribution() {
+    double[] cumulative = new double[courseCount];
+    double total = 0;
+    for(int i = 0; i < courseCount; i++) {
+      total += 1 / Math.pow(i + 1, skew);
+      cumulative[i] = total;
+    }
+    for(int i = 0; i < courseCount; i++) {
+      cumulative[i] /= total;
+    }
+    return cumulative;
+  }
+
+  /**
+   * Picks a course following the popularity distribution
+   *
+   * @param cumulative the cumulative distribution of the courses
+   * @param random     the random generator of the thread
+   * @return the index of the picked course
+   */
+  private static int pickCourse(double[] cumulative, SplittableRandom random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+  }
+
+  /**
+   * Synthesizes the traffic. Each thread stays on a current course, picked by popularity, until a
+   * switch operation moves it to another one, like a client working through a schedule.
+   *
+   * @return the operations of each thread
+   */
+  private Operations[] synthesize() {
+    double[] cumulative = courseDistribution();
+    Operations[] operations = new Operations[threadCount];
+    SplittableRandom seeds = new SplittableRandom(seed);
+    for(int t = 0; t < threadCount; t++) {
+      SplittableRandom random = seeds.split();
+      Operations ops = operations[t] = new Operations();
+      long share = operationCount / threadCount + (t < operationCount % threadCount ? 1 : 0);
+      int course = pickCourse(cumulative, random);
+      for(long i = 0; i < share; i++) {
+        int roll = random.nextInt(100);
+        int type = 0;
+        while(roll >= MIX[type]) {
+          roll -= MIX[type];
+          type++;
+        }
+        if(TYPES[type] == 'S') {
+          course = pickCourse(cumulative, random);
+        }
+        ops.add(type, course, random.nextInt(studentCount));
+      }
+    }
+    return operations;
+  }
+
+  /**
+   * Reads a trace file, giving all the operations of a course to the same thread
+   *
+   * @return the operations of each thread
+   * @throws IOException         if the trace could not be read
+   * @throws DataFormatException if a line of the trace is not valid
+   */
+  private Operations[] readTrace() throws IOException, DataFormatException {
+    Operations[] operations = new Operations[threadCount];
+    for(int t = 0; t < threadCount; t++) {
+      operations[t] = new Operations();
+    }
+    try (BufferedReader reader = Files.newBufferedReader(traceFile.toPath(),
+        StandardCharsets.UTF_8)) {
+      String line;
+      while((line = reader.readLine()) != null) {
+        if(line.isBlank()) {
+          continue;
+        }
+        String[] parts = line.trim().split(" ");
+        int type = parts[0].length() == 1 ? new String(TYPES).indexOf(parts[0].charAt(0)) : -1;
+        try {
+          int course = Integer.parseInt(parts[1]);
+          int student = type == 3 ? 0 : Integer.parseInt(parts[2]);
+          if(type < 0 || course < 0 || course >= courseCount || student < 0
+              || student >= studentCount) {
+            throw new DataFormatException("Bad trace line: " + line);
+          }
+          operations[course % threadCount].add(type, course, student);
+        }
+        catch(NumberFormatException | ArrayIndexOutOfBoundsException e) {
+          throw new DataFormatException("Bad trace line: " + line);
+        }
+      }
+    }
+    return operations;
+  }
+
+  /**
+   * Writes operations to a trace file, thread after thread
+   *
+   * @param operations the operations of each thread
+   * @throws IOException if the trace could not be written
+   */
+  private void record(Operations[] operations) throws IOException {
+    try (Writer writer = new BufferedWriter(Files.newBufferedWriter(recordFile.toPath(),
+        StandardCharsets.UTF_8), 64 * 1024)) {
+      for(Operations ops : operations) {
+        for(int i = 0; i < ops.size; i++) {
+          writer.write(TYPES[ops.types[i]]);
+          writer.write(' ');
+          writer.write(Integer.toString(ops.courses[i]));
+          if(TYPES[ops.types[i]] != 'S') {
+            writer.write(' ');
+            writer.write(Integer.toString(ops.students[i]));
+          }
+          writer.write('\n');
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs the load and prints the report
+   *
+   * @throws Exception if the traffic could not be prepared or an operation failed unexpectedly
+   */
+  private void run() throws Exception {
+    Operations[] operations = traceFile != null ? readTrace() : synthesize();
+    if(recordFile != null) {
+      record(operations);
+    }
+
+    CourseCatalog catalog = new CourseCatalog();
+    String[] names = new String[courseCount];
+    for(int i = 0; i < courseCount; i++) {
+      names[i] = "C" + i;
+      catalog.create(names[i], ENROLLMENT_CAPACITY, WAITLIST_CAPACITY);
+    }
+    StudentRecord[] students = new StudentRecord[studentCount];
+    for(int i = 0; i < studentCount; i++) {
+      // one in ten students has not satisfied the prerequisites
+      students[i] = new StudentRecord("student" + i, "student" + i + "@wisc.edu",
+          1000000000L + i, i % 10 != 0);
+    }
+
+    EnrollmentMetrics metrics = EnrollmentMetrics.get();
+    if(metricsPeriod > 0) {
+      metrics.setEnabled(true);
+      metrics.startDump(System.out, metricsPeriod);
+    }
+
+    LatencyHistogram[] latencies = new LatencyHistogram[TYPES.length];
+    for(int i = 0; i < TYPES.length; i++) {
+      latencies[i] = new LatencyHistogram();
+    }
+    LongAdder successes = new LongAdder();
+    HashMap<EnrollmentOutcome, LongAdder> outcomes = new HashMap<EnrollmentOutcome, LongAdder>();
+    for(EnrollmentOutcome outcome : EnrollmentOutcome.values()) {
+      outcomes.put(outcome, new LongAdder());
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    ArrayList<Thread> threads = new ArrayList<Thread>();
+    long total = 0;
+    for(Operations ops : operations) {
+      total += ops.size;
+      Thread thread = new Thread(() -> {
+        // each thread records into its own histograms, merged at the end
+        LatencyHistogram[] local = new LatencyHistogram[TYPES.length];
+        for(int i = 0; i < TYPES.length; i++) {
+          local[i] = new LatencyHistogram();
+        }
+        try {
+          start.await();
+        }
+        catch(InterruptedException e) {
+          return;
+        }
+        ExceptionalCourseEnrollment current = null;
+        int currentIndex = -1;
+        for(int i = 0; i < ops.size; i++) {
+          int type = ops.types[i];
+          StudentRecord student = students[ops.students[i]];
+          long begin = System.nanoTime();
+          EnrollmentOutcome outcome = null;
+          // a switch, or an operation on another course of a trace, looks the course up by name
+          if(type == 3 || currentIndex != ops.courses[i]) {
+            currentIndex = ops.courses[i];
+            current = catalog.get(names[currentIndex]);
+          }
+          if(type == 0) {
+            outcome = current.tryEnroll(student);
+          }
+          else if(type == 1) {
+            outcome = current.tryAddWaitlist(student);
+          }
+          else if(type == 2) {
+            outcome = current.tryDrop(student);
+          }
+          local[type].record(System.nanoTime() - begin);
+          if(outcome != null) {
+            outcomes.get(outcome).increment();
+            if(outcome.isSuccess()) {
+              successes.increment();
+            }
+          }
+        }
+        for(int i = 0; i < TYPES.length; i++) {
+          latencies[i].add(local[i]);
+        }
+      }, "load-client-" + threads.size());
+      threads.add(thread);
+      thread.start();
+    }
+
+    long begin = System.nanoTime();
+    start.countDown();
+    for(Thread thread : threads) {
+      thread.join();
+    }
+    long elapsed = System.nanoTime() - begin;
+
+    System.out.printf("%d operations on %d courses by %d threads in %.3f s: %.0f ops/s%n", total,
+        courseCount, threadCount, elapsed / 1e9, total / (elapsed / 1e9));
+    System.out.println("latency in microseconds:");
+    for(int i = 0; i < TYPES.length; i++) {
+      System.out.printf("  %-8s %s%n", TYPE_NAMES[i], latencies[i].summary(1000));
+    }
+    System.out.println("outcomes (" + successes.sum() + " changed a course):");
+    for(EnrollmentOutcome outcome : EnrollmentOutcome.values()) {
+      long n = outcomes.get(outcome).sum();
+      if(n > 0) {
+        System.out.printf("  %-28s %d%n", outcome, n);
+      }
+    }
+    if(metricsPeriod > 0) {
+      metrics.stopDump();
+      metrics.appendTo(System.out);
+    }
+  }
+
+  /**
+   * Main method to run the load generator.
+   *
+   * @param args the options described in the class comment
+   * @throws Exception if the load could not be run
+   */
+  public static void main(String[] args) throws Exception {
+    new RegistrationLoadGenerator(args).run();
+  }
+}
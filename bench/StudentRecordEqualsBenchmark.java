@@ -0,0 +1,120 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The StudentRecordEqualsBenchmark class compares the time and memory allocated by the
+//        previous split-based StudentRecord.equals() with the current field-based one.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/en/java/javase/17/docs/api/jdk.management/com/sun/management/ThreadMXBean.html
+//                 -Referenced for measuring the bytes allocated by the current thread
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.lang.management.ManagementFactory;
+import java.util.zip.DataFormatException;
+
+/**
+ * Compares the previous implementation of StudentRecord.equals(), which rebuilt and split the
+ * other record's toString() on every call, against the current implementation. Reports the
+ * average time and number of bytes allocated per comparison.
+ *
+ * JMH refuses benchmark classes declared in the default package, which is where every class of
+ * this program lives, so this benchmark measures by hand with a warmup phase followed by several
+ * measured rounds.
+ */
+public class StudentRecordEqualsBenchmark {
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 5;
+  private static final int OPERATIONS_PER_ROUND = 2_000_000;
+
+  /** Prevents the JIT from eliminating the comparisons as dead code */
+  private static int sink;
+
+  /**
+   * The StudentRecord.equals() implementation as it was before comparing campusIDs directly
+   *
+   * @param record the record equals() is called on
+   * @param other  the object to compare against
+   * @return true if other is a StudentRecord with the same campusID as record
+   */
+  private static boolean legacyEquals(StudentRecord record, Object other) {
+    boolean instanceOf = other instanceof StudentRecord;
+    String[] parts = null;
+    boolean sameCampusID = false;
+    if (instanceOf) {
+      parts = other.toString().trim().split(", ");
+      sameCampusID = record.getCampusID().equals(parts[2].trim());
+    }
+    return instanceOf && sameCampusID;
+  }
+
+  /**
+   * Runs one round of comparisons
+   *
+   * @param legacy  true to use the legacy implementation, false to use StudentRecord.equals()
+   * @param records the records compared against each other
+   */
+  private static void runRound(boolean legacy, StudentRecord[] records) {
+    int matches = 0;
+    for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+      StudentRecord a = records[i % records.length];
+      StudentRecord b = records[(i + 1) % records.length];
+      if (legacy ? legacyEquals(a, b) : a.equals(b)) {
+        matches++;
+      }
+    }
+    sink += matches;
+  }
+
+  /**
+   * Measures one implementation and prints the average time and allocation per comparison
+   *
+   * @param label   the name printed for this implementation
+   * @param legacy  true to use the legacy implementation, false to use StudentRecord.equals()
+   * @param records the records compared against each other
+   */
+  private static void measure(String label, boolean legacy, StudentRecord[] records) {
+    com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      runRound(legacy, records);
+    }
+    long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+    long start = System.nanoTime();
+    for (int i = 0; i < MEASURED_ROUNDS; i++) {
+      runRound(legacy, records);
+    }
+    long elapsed = System.nanoTime() - start;
+    long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+    long operations = (long) MEASURED_ROUNDS * OPERATIONS_PER_ROUND;
+    System.out.printf("%-8s %10.2f ns/op %10.2f B/op%n", label, (double) elapsed / operations,
+        (double) bytes / operations);
+  }
+
+  /**
+   * Main method to run this benchmark.
+   *
+   * @param args list of input arguments if any
+   * @throws DataFormatException if the generated student records are not valid
+   */
+  public static void main(String[] args) throws DataFormatException {
+    StudentRecord[] records = new StudentRecord[64];
+    for (int i = 0; i < records.length; i++) {
+      // every fourth record shares a campusID with the one before it
+      long id = 1000000000L + (i % 4 == 3 ? i - 1 : i);
+      records[i] = new StudentRecord("student" + i, "student" + i + "@wisc.edu", " " + id, true);
+    }
+    measure("legacy", true, records);
+    measure("current", false, records);
+    System.out.println("(sink " + sink + ")");
+  }
+}
@@ -0,0 +1,193 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The CampusIDIndex class maps numeric campusIDs to int positions in an open-addressing
+//        hash table of primitive longs and ints, so that indexing students never boxes them.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://en.wikipedia.org/wiki/Linear_probing
+//                 -Referenced for deleting by shifting entries back instead of leaving tombstones
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Arrays;
+
+/**
+ * Keys are kept in a long[] and values in an int[] of the same length, probed linearly from a
+ * Fibonacci hash of the key. A removed entry is filled by shifting the entries after it back, so
+ * the table never fills up with tombstones. Lookups, insertions and removals are constant time on
+ * average and allocate nothing unless the table grows.
+ *
+ * Values must not be negative: an empty slot holds ABSENT as its value. Not thread safe.
+ */
+class CampusIDIndex {
+  /** Returned by get(), put() and remove() when the key is not in the index */
+  static final int ABSENT = -1;
+
+  /** Smallest number of slots, a power of two */
+  private static final int MIN_SLOTS = 8;
+
+  /** key of each slot, meaningless where the value is ABSENT */
+  private long[] keys;
+  /** value of each slot, ABSENT if the slot is empty */
+  private int[] values;
+  /** number of keys in the index */
+  private int size;
+  /** 64 minus log2 of the number of slots, for taking the top bits of the hash */
+  private int shift;
+
+  /**
+   * Creates an empty index sized for a number of keys that are about to be added, so that it does
+   * not grow while they are
+   *
+   * @param expectedSize the number of keys the index is sized for
+   */
+  CampusIDIndex(int expectedSize) {
+    int slots = MIN_SLOTS;
+    while(slots * 2 / 3 < expectedSize) {
+      slots *= 2;
+    }
+    allocate(slots);
+  }
+
+  /**
+   * Getter for the number of keys
+   *
+   * @return the number of keys in the index
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks if a key is in the index
+   *
+   * @param key the campusID to look for
+   * @return true if the key is in the index
+   */
+  boolean containsKey(long key) {
+    return get(key) != ABSENT;
+  }
+
+  /**
+   * Returns the value of a key
+   *
+   * @param key the campusID to look for
+   * @return the value of the key, or ABSENT if it is not in the index
+   */
+  int get(long key) {
+    int mask = keys.length - 1;
+    for(int slot = slot(key); values[slot] != ABSENT; slot = (slot + 1) & mask) {
+      if(keys[slot] == key) {
+        return values[slot];
+      }
+    }
+    return ABSENT;
+  }
+
+  /**
+   * Sets the value of a key, adding the key if it is not in the index
+   *
+   * @param key   the campusID
+   * @param value its value, not negative
+   * @return the previous value of the key, or ABSENT if it was not in the index
+   */
+  int put(long key, int value) {
+    int mask = keys.length - 1;
+    int slot = slot(key);
+    for(; values[slot] != ABSENT; slot = (slot + 1) & mask) {
+      if(keys[slot] == key) {
+        int previous = values[slot];
+        values[slot] = value;
+        return previous;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    if(size > keys.length * 2 / 3) { // kept at most two thirds full so that probes stay short
+      grow();
+    }
+    return ABSENT;
+  }
+
+  /**
+   * Removes a key from the index
+   *
+   * @param key the campusID to remove
+   * @return the value the key had, or ABSENT if it was not in the index
+   */
+  int remove(long key) {
+    int mask = keys.length - 1;
+    int hole = slot(key);
+    while(values[hole] != ABSENT && keys[hole] != key) {
+      hole = (hole + 1) & mask;
+    }
+    int removed = values[hole];
+    if(removed == ABSENT) {
+      return ABSENT;
+    }
+    size--;
+    // move back every following entry of the run that may sit in the hole, so that a lookup never
+    // stops at an empty slot before reaching its key
+    for(int slot = (hole + 1) & mask; values[slot] != ABSENT; slot = (slot + 1) & mask) {
+      int home = slot(keys[slot]);
+      if(((slot - home) & mask) >= ((slot - hole) & mask)) {
+        keys[hole] = keys[slot];
+        values[hole] = values[slot];
+        hole = slot;
+      }
+    }
+    values[hole] = ABSENT;
+    return removed;
+  }
+
+  /**
+   * Returns the slot a key is probed from
+   *
+   * @param key the campusID
+   * @return the first slot to look at for the key
+   */
+  private int slot(long key) {
+    // Fibonacci hashing spreads consecutive campusIDs over the whole table
+    return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+
+  /**
+   * Replaces the table by an empty one
+   *
+   * @param slots the number of slots, a power of two
+   */
+  private void allocate(int slots) {
+    keys = new long[slots];
+    values = new int[slots];
+    Arrays.fill(values, ABSENT);
+    shift = 64 - Integer.numberOfTrailingZeros(slots);
+  }
+
+  /**
+   * Doubles the number of slots and puts every entry back
+   */
+  private void grow() {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(keys.length * 2);
+    int mask = keys.length - 1;
+    for(int i = 0; i < oldKeys.length; i++) {
+      if(oldValues[i] != ABSENT) {
+        int slot = slot(oldKeys[i]);
+        while(values[slot] != ABSENT) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The ConsoleEnrollmentListener class prints every change made to an
+//        ExceptionalCourseEnrollment to System.out.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * An optional listener writing one line per event, for example: <BR>
+ * CS300: Rob was enrolled.
+ *
+ * The line goes to System.out as it is when the event is delivered, on the dispatcher thread. The
+ * driver adds one to every course it creates and waits for the events of each command to be
+ * delivered, so the lines appear right after the command that caused them.
+ */
+public class ConsoleEnrollmentListener implements EnrollmentListener {
+
+  /**
+   * Prints one line describing the event
+   *
+   * @param event the change that was made
+   */
+  @Override
+  public void onEvent(EnrollmentEvent event) {
+    System.out.println(describe(event));
+  }
+
+  /**
+   * Returns the line printed for an event
+   *
+   * @param event the change that was made
+   * @return a one line description of the event
+   */
+  public static String describe(EnrollmentEvent event) {
+    String prefix = event.getCourseName() + ": ";
+    switch(event.getType()) {
+      case ENROLLED:
+        return prefix + event.getStudent().getName() + " was enrolled.";
+      case WAITLISTED:
+        return prefix + event.getStudent().getName() + " was added to the waitlist.";
+      case DROPPED:
+        return prefix + event.getStudent().getName() + " dropped the course.";
+      case PROMOTED:
+        StringBuilder names = new StringBuilder();
+        for(StudentRecord student : event.getStudents()) {
+          if(names.length() > 0) {
+            names.append(", ");
+          }
+          names.append(student.getName());
+        }
+        return prefix + names + " moved from the waitlist into the roster.";
+      default: // CAPACITY_CHANGED
+        return prefix + "The enrollment capacity is now " + event.getEnrollmentCapacity() + ".";
+    }
+  }
+}
@@ -0,0 +1,288 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The CourseCatalog class owns every ExceptionalCourseEnrollment of an application. It
+//        indexes the courses by name and by creation order, and keeps a reverse index from each
+//        campusID to the courses that student is enrolled or waitlisted in.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentHashMap.html
+//                 -Referenced for newKeySet() and computeIfPresent()
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Every method may be called from any thread. Looking a course up by name and looking up the
+ * courses of a student are constant time and never block. The reverse index is kept up to date
+ * synchronously by each course through an EnrollmentHook, so it always agrees with the rosters and
+ * waitlists. A student's schedule costs constant time per course they are enrolled in, plus, per
+ * course they are waitlisted in, a read lock on that course and time growing with their position
+ * in its waitlist (see getWaitlistPosition()). No roster or whole waitlist is ever walked.
+ */
+public class CourseCatalog {
+  /** Courses keyed by name */
+  private final ConcurrentHashMap<String, ExceptionalCourseEnrollment> byName =
+      new ConcurrentHashMap<String, ExceptionalCourseEnrollment>();
+  /** Courses in the order they were added, guarded by lock */
+  private final ArrayList<ExceptionalCourseEnrollment> byIndex =
+      new ArrayList<ExceptionalCourseEnrollment>();
+  /** Guards byIndex and keeps it consistent with byName */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Courses each student is enrolled or waitlisted in, with their status, keyed by campusID */
+  private final ConcurrentHashMap<Long,
+      ConcurrentHashMap<ExceptionalCourseEnrollment, ScheduleEntry.Status>> schedules =
+          new ConcurrentHashMap<Long,
+              ConcurrentHashMap<ExceptionalCourseEnrollment, ScheduleEntry.Status>>();
+  /** Hook attached to every course of this catalog to maintain schedules */
+  private final EnrollmentHook index = new EnrollmentHook() {
+    @Override
+    public void enrolled(ExceptionalCourseEnrollment course, StudentRecord student) {
+      put(course, student, ScheduleEntry.Status.ENROLLED);
+    }
+
+    @Override
+    public void waitlisted(ExceptionalCourseEnrollment course, StudentRecord student) {
+      put(course, student, ScheduleEntry.Status.WAITLISTED);
+    }
+
+    @Override
+    public void dropped(ExceptionalCourseEnrollment course, long campusID) {
+      schedules.computeIfPresent(campusID, (k, courses) -> {
+        courses.remove(course);
+        return courses.isEmpty() ? null : courses; // null removes the entry
+      });
+    }
+
+    private void put(ExceptionalCourseEnrollment course, StudentRecord student,
+        ScheduleEntry.Status status) {
+      // compute() so that a concurrent dropped() can never remove the map being added to
+      schedules.compute(student.getCampusIDValue(), (k, courses) -> {
+        if(courses == null) {
+          courses = new ConcurrentHashMap<ExceptionalCourseEnrollment, ScheduleEntry.Status>(4);
+        }
+        courses.put(course, status);
+        return courses;
+      });
+    }
+  };
+
+  /**
+   * Creates a new course enrollment and adds it to this catalog
+   *
+   * @param courseName         the name of the course, unique in this catalog
+   * @param enrollmentCapacity the capacity of the course roster
+   * @param waitlistCapacity   the capacity of the waitlist
+   * @return the new course enrollment
+   * @throws IllegalArgumentException with message "A course with that name already exists!" if the
+   *                                  name is taken, or any exception of the
+   *                                  ExceptionalCourseEnrollment constructor
+   */
+  public ExceptionalCourseEnrollment create(String courseName, int enrollmentCapacity,
+      int waitlistCapacity) {
+    ExceptionalCourseEnrollment course =
+        new ExceptionalCourseEnrollment(courseName, enrollmentCapacity, waitlistCapacity);
+    add(course);
+    return course;
+  }
+
+  /**
+   * Adds an existing course enrollment, for example one restored from a file, to this catalog.
+   * Its current roster is added to the reverse index.
+   *
+   * @param course the course enrollment to add
+   * @throws IllegalArgumentException with message "A course with that name already exists!" if
+   *                                  another course of this catalog has the same name
+   */
+  public void add(ExceptionalCourseEnrollment course) {
+    lock.writeLock().lock();
+    try {
+      if(byName.putIfAbsent(course.getName(), course) != null) {
+        throw new IllegalArgumentException("A course with that name already exists!");
+      }
+      byIndex.add(course);
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+    course.setHook(index);
+  }
+
+  /**
+   * Removes a course enrollment from this catalog and its students from the reverse index
+   *
+   * @param courseName the name of the course to remove
+   * @return the removed course enrollment
+   * @throws NoSuchElementException with message "No course found with that name!" if no course of
+   *                                this catalog has that name
+   */
+  public ExceptionalCourseEnrollment remove(String courseName) {
+    ExceptionalCourseEnrollment course;
+    lock.writeLock().lock();
+    try {
+      course = byName.remove(courseName);
+      if(course == null) {
+        throw new NoSuchElementException("No course found with that name!");
+      }
+      byIndex.remove(course);
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+    course.setHook(null);
+    return course;
+  }
+
+  /**
+   * Finds a course enrollment by name
+   *
+   * @param courseName the name of the course
+   * @return the course enrollment with that name
+   * @throws NoSuchElementException with message "No course found with that name!" if no course of
+   *                                this catalog has that name
+   */
+  public ExceptionalCourseEnrollment get(String courseName) {
+    ExceptionalCourseEnrollment course = courseName == null ? null : byName.get(courseName);
+    if(course == null) {
+      throw new NoSuchElementException("No course found with that name!");
+    }
+    return course;
+  }
+
+  /**
+   * Finds a course enrollment by the order it was added in
+   *
+   * @param index the position of the course, 0 for the first course added
+   * @return the course enrollment at that position
+   * @throws IndexOutOfBoundsException if index is not between 0 and size() - 1
+   */
+  public ExceptionalCourseEnrollment get(int index) {
+    lock.readLock().lock();
+    try {
+      return byIndex.get(index);
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Checks if this catalog has a course with a given name
+   *
+   * @param courseName the name of the course
+   * @return true if a course of this catalog has that name
+   */
+  public boolean contains(String courseName) {
+    return courseName != null && byName.containsKey(courseName);
+  }
+
+  /**
+   * Getter for the number of courses in this catalog
+   *
+   * @return the number of courses
+   */
+  public int size() {
+    return byName.size();
+  }
+
+  /**
+   * Returns the courses of this catalog in the order they were added
+   *
+   * @return a new list of the courses, not affected by later changes to the catalog
+   */
+  public List<ExceptionalCourseEnrollment> getCourses() {
+    lock.readLock().lock();
+    try {
+      return new ArrayList<ExceptionalCourseEnrollment>(byIndex);
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Returns every course a student is enrolled or waitlisted in, with their waitlist position. The
+   * position in each waitlist costs O(position) comparisons, so a student near the end of a long
+   * waitlist costs more than one near its head.
+   *
+   * @param campusID the numeric campusID of the student
+   * @return a new list of schedule entries, empty if the student is in no course
+   */
+  public List<ScheduleEntry> getSchedule(long campusID) {
+    ArrayList<ScheduleEntry> schedule = new ArrayList<ScheduleEntry>();
+    Map<ExceptionalCourseEnrollment, ScheduleEntry.Status> courses = schedules.get(campusID);
+    if(courses == null) {
+      return schedule;
+    }
+    for(Map.Entry<ExceptionalCourseEnrollment, ScheduleEntry.Status> course : courses.entrySet()) {
+      if(course.getValue() == ScheduleEntry.Status.ENROLLED) {
+        schedule.add(new ScheduleEntry(course.getKey(), ScheduleEntry.Status.ENROLLED, 0));
+      }
+      else {
+        // only the courses of this student are looked at, and only the part of each waitlist
+        // ahead of them is compared
+        int position = course.getKey().getWaitlistPosition(campusID);
+        if(position > 0) { // -1 if the student was promoted or left in the meantime
+          schedule.add(
+              new ScheduleEntry(course.getKey(), ScheduleEntry.Status.WAITLISTED, position));
+        }
+      }
+    }
+    return schedule;
+  }
+
+  /**
+   * Returns every course a student is enrolled or waitlisted in, with their waitlist position
+   *
+   * @param campusID the campusID of the student
+   * @return a new list of schedule entries, empty if the student is in no course or campusID is
+   *         not valid
+   */
+  public List<ScheduleEntry> getSchedule(String campusID) {
+    long value = campusID == null ? -1 : StudentRecord.parseCampusID(campusID);
+    return value < 0 ? new ArrayList<ScheduleEntry>() : getSchedule(value);
+  }
+
+  /**
+   * Returns the courses a student is enrolled in
+   *
+   * @param campusID the numeric campusID of the student
+   * @return a new list of the courses, empty if the student is enrolled in none
+   */
+  public List<ExceptionalCourseEnrollment> getCoursesOf(long campusID) {
+    ArrayList<ExceptionalCourseEnrollment> enrolled = new ArrayList<ExceptionalCourseEnrollment>();
+    Map<ExceptionalCourseEnrollment, ScheduleEntry.Status> courses = schedules.get(campusID);
+    if(courses != null) {
+      for(Map.Entry<ExceptionalCourseEnrollment, ScheduleEntry.Status> course : courses.entrySet()) {
+        if(course.getValue() == ScheduleEntry.Status.ENROLLED) {
+          enrolled.add(course.getKey());
+        }
+      }
+    }
+    return enrolled;
+  }
+
+  /**
+   * Returns the courses a student is enrolled in
+   *
+   * @param campusID the campusID of the student
+   * @return a new list of the courses, empty if the student is enrolled in none or campusID is not
+   *         valid
+   */
+  public List<ExceptionalCourseEnrollment> getCoursesOf(String campusID) {
+    long value = campusID == null ? -1 : StudentRecord.parseCampusID(campusID);
+    return value < 0 ? new ArrayList<ExceptionalCourseEnrollment>() : getCoursesOf(value);
+  }
+}
@@ -0,0 +1,407 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The CourseSnapshot class saves a whole ExceptionalCourseEnrollment (course name,
+//        capacities, roster and waitlist) in a compact binary file and opens such files through a
+//        memory mapping, decoding each StudentRecord only when it is first accessed. It also
+//        converts between snapshots and the text roster and course state formats.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/java/nio/MappedByteBuffer.html
+//                 -Referenced when mapping snapshot files in open()
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+
+/**
+ * A read-only view of a course enrollment saved with write(). The file is laid out as follows (all
+ * numbers big-endian):
+ *
+ * int magic, short version, int enrollmentCapacity, int waitlistCapacity, int rosterSize, int
+ * waitlistSize, int nameLength, course name bytes (UTF-8)<BR>
+ * one record per student, roster first: long campusID, byte preReq, int nameLength, name bytes, int
+ * emailLength, email bytes<BR>
+ * int offset of each record, in the same order<BR>
+ * long offset of the offset table
+ *
+ * Opening a snapshot only reads the header; a StudentRecord is decoded the first time it is
+ * requested and then kept.
+ */
+public class CourseSnapshot {
+  /** The first four bytes of every snapshot file, "ECES" */
+  private static final int MAGIC = 0x45434553;
+  /** Version of the layout described above */
+  private static final short VERSION = 1;
+  /** Size in bytes of the buffer used when writing snapshots */
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+  /** Mapped content of the snapshot file */
+  private final ByteBuffer buffer;
+  /** Course name */
+  private final String courseName;
+  /** enrollment capacity of the saved course */
+  private final int enrollmentCapacity;
+  /** waitlist capacity of the saved course */
+  private final int waitlistCapacity;
+  /** number of students in the saved roster */
+  private final int rosterSize;
+  /** number of students in the saved waitlist */
+  private final int waitlistSize;
+  /** position in buffer of the table holding the offset of each record */
+  private final int offsetTable;
+  /** records already decoded, roster first then waitlist; null until first accessed */
+  private final StudentRecord[] decoded;
+
+  /**
+   * Reads the header of a mapped snapshot.
+   *
+   * @param buffer the content of the snapshot file
+   * @throws IOException if the buffer does not hold a valid snapshot
+   */
+  private CourseSnapshot(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    try {
+      if(buffer.getInt(0) != MAGIC || buffer.getShort(4) != VERSION) {
+        throw new IOException("Not a course snapshot file!");
+      }
+      enrollmentCapacity = buffer.getInt(6);
+      waitlistCapacity = buffer.getInt(10);
+      rosterSize = buffer.getInt(14);
+      waitlistSize = buffer.getInt(18);
+      courseName = readString(22);
+      long tableOffset = buffer.getLong(buffer.limit() - Long.BYTES);
+      if(rosterSize < 0 || waitlistSize < 0 || tableOffset < 0 || tableOffset
+          + (long) (rosterSize + waitlistSize) * Integer.BYTES > buffer.limit() - Long.BYTES) {
+        throw new IOException("Corrupted course snapshot!");
+      }
+      offsetTable = (int) tableOffset;
+    }
+    catch(IndexOutOfBoundsException | BufferUnderflowException | IllegalStateException e) {
+      throw new IOException("Corrupted course snapshot!", e);
+    }
+    decoded = new StudentRecord[rosterSize + waitlistSize];
+  }
+
+  /**
+   * Opens a snapshot file by mapping it in memory. Only the header is read.
+   *
+   * @param file the snapshot file written by write()
+   * @return a snapshot reading from that file
+   * @throws IOException if the file could not be read or is not a valid snapshot
+   */
+  public static CourseSnapshot open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      // the mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new CourseSnapshot(buffer);
+    }
+  }
+
+  /**
+   * Saves the whole state of a course enrollment to a snapshot file. The state is captured under a
+   * single acquisition of the course's read lock, like saveCourseState() does, and then written to
+   * a temporary file that replaces the output file, so a crash never leaves a partial snapshot.
+   *
+   * @param course the course enrollment to save
+   * @param file   the output file
+   * @throws IOException if the snapshot could not be written, in which case the output file is left
+   *                     as it was
+   */
+  public static void write(ExceptionalCourseEnrollment course, File file) throws IOException {
+    ExceptionalCourseEnrollment.SavedState state = course.captureState();
+    List<StudentRecord> roster = state.roster;
+    List<StudentRecord> waitlist = state.waitlist;
+    int[] offsets = new int[roster.size() + waitlist.size()];
+
+    Path target = file.toPath().toAbsolutePath();
+    Path temp = ExceptionalCourseEnrollment.createTempSibling(target);
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(state.enrollmentCapacity);
+        out.writeInt(state.waitlistCapacity);
+        out.writeInt(roster.size());
+        out.writeInt(waitlist.size());
+        writeString(out, state.courseName);
+        int i = 0;
+        for(StudentRecord student : roster) {
+          offsets[i++] = out.size();
+          writeRecord(out, student);
+        }
+        for(StudentRecord student : waitlist) {
+          offsets[i++] = out.size();
+          writeRecord(out, student);
+        }
+        long tableOffset = out.size();
+        for(int offset : offsets) {
+          out.writeInt(offset);
+        }
+        out.writeLong(tableOffset);
+        out.flush();
+        channel.force(true);
+      }
+      ExceptionalCourseEnrollment.replaceAtomically(temp, target);
+    }
+    catch(IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+  }
+
+  /**
+   * Writes one StudentRecord in the layout described in the class comment
+   *
+   * @param out     the stream to write to
+   * @param student the student to write
+   * @throws IOException if the record could not be written
+   */
+  private static void writeRecord(DataOutputStream out, StudentRecord student)
+      throws IOException {
+    out.writeLong(student.getCampusIDValue());
+    out.writeByte(student.isPrerequisiteSatisfied() ? 1 : 0);
+    writeString(out, student.getName());
+    writeString(out, student.getEmail());
+  }
+
+  /**
+   * Writes a string as its length in bytes followed by its UTF-8 bytes
+   *
+   * @param out   the stream to write to
+   * @param value the string to write
+   * @throws IOException if the string could not be written
+   */
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by writeString() at the given position of the buffer
+   *
+   * @param position the position of the length of the string
+   * @return the decoded string
+   * @throws IllegalStateException with message "Corrupted course snapshot!" if the length or the
+   *                               bytes of the string do not fit in the buffer
+   */
+  private String readString(int position) {
+    checkRange(position, Integer.BYTES);
+    int length = buffer.getInt(position);
+    checkRange((long) position + Integer.BYTES, length);
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    view.position(position + Integer.BYTES);
+    view.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the record at the given index, roster first then waitlist, decoding it on first access
+   *
+   * @param index the index of the record among all the saved records
+   * @return the decoded StudentRecord
+   * @throws IllegalStateException with message "Corrupted course snapshot!" if the record stored in
+   *                               the file is not valid or does not fit in the file
+   */
+  private StudentRecord record(int index) {
+    StudentRecord student = decoded[index];
+    if(student == null) {
+      int position = buffer.getInt(offsetTable + index * Integer.BYTES);
+      checkRange(position, Long.BYTES + 1); // campusID and preReq
+      long campusID = buffer.getLong(position);
+      boolean preReq = buffer.get(position + Long.BYTES) != 0;
+      int namePosition = position + Long.BYTES + 1;
+      String name = readString(namePosition);
+      int emailPosition = namePosition + Integer.BYTES + buffer.getInt(namePosition);
+      String email = readString(emailPosition);
+      try {
+        student = new StudentRecord(name, email, campusID, preReq);
+      }
+      catch(DataFormatException e) {
+        throw new IllegalStateException("Corrupted course snapshot!", e);
+      }
+      decoded[index] = student;
+    }
+    return student;
+  }
+
+  /**
+   * Checks that length bytes starting at position lie within the buffer, so that an offset or length
+   * read from a damaged file is reported instead of reading out of bounds
+   *
+   * @param position the position of the first byte
+   * @param length   the number of bytes
+   * @throws IllegalStateException with message "Corrupted course snapshot!" if position or length is
+   *                               negative or the range ends past the limit of the buffer
+   */
+  private void checkRange(long position, long length) {
+    if(position < 0 || length < 0 || position + length > buffer.limit()) {
+      throw new IllegalStateException("Corrupted course snapshot!");
+    }
+  }
+
+  /**
+   * Getter for course name
+   *
+   * @return string the name of the saved course
+   */
+  public String getCourseName() {
+    return courseName;
+  }
+
+  /**
+   * Getter for the enrollment capacity
+   *
+   * @return the enrollment capacity of the saved course
+   */
+  public int getEnrollmentCapacity() {
+    return enrollmentCapacity;
+  }
+
+  /**
+   * Getter for the waitlist capacity
+   *
+   * @return the waitlist capacity of the saved course
+   */
+  public int getWaitlistCapacity() {
+    return waitlistCapacity;
+  }
+
+  /**
+   * Returns the saved roster. Records are decoded lazily as the list is read.
+   *
+   * @return an unmodifiable list of the students enrolled in the saved course, in roster order
+   */
+  public List<StudentRecord> getRoster() {
+    return new AbstractList<StudentRecord>() {
+      @Override
+      public StudentRecord get(int index) {
+        if(index < 0 || index >= rosterSize) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return record(index);
+      }
+
+      @Override
+      public int size() {
+        return rosterSize;
+      }
+    };
+  }
+
+  /**
+   * Returns the saved waitlist. Records are decoded lazily as the list is read.
+   *
+   * @return an unmodifiable list of the students in the saved waitlist, in waitlist order
+   */
+  public List<StudentRecord> getWaitlist() {
+    return new AbstractList<StudentRecord>() {
+      @Override
+      public StudentRecord get(int index) {
+        if(index < 0 || index >= waitlistSize) {
+          throw new IndexOutOfBoundsException(index);
+        }
+        return record(rosterSize + index);
+      }
+
+      @Override
+      public int size() {
+        return waitlistSize;
+      }
+    };
+  }
+
+  /**
+   * Creates a course enrollment holding everything saved in this snapshot
+   *
+   * @return the restored course enrollment
+   * @throws IllegalStateException if a record stored in the file is not valid
+   * @throws IllegalArgumentException if the saved state is not consistent
+   */
+  public ExceptionalCourseEnrollment toCourseEnrollment() {
+    return ExceptionalCourseEnrollment.restore(courseName, enrollmentCapacity, waitlistCapacity,
+        getRoster(), getWaitlist());
+  }
+
+  /**
+   * Converts a text roster, as written by saveRoster(), to a snapshot. The text format does not
+   * hold the course name, capacities or waitlist, so they are given here.
+   *
+   * @param rosterFile         the text roster to read
+   * @param snapshotFile       the snapshot to write
+   * @param courseName         the name of the course
+   * @param enrollmentCapacity the enrollment capacity of the course
+   * @param waitlistCapacity   the waitlist capacity of the course
+   * @return a summary of the students read from the text roster
+   * @throws IOException if a file could not be read or written
+   */
+  public static RosterLoadSummary textToSnapshot(File rosterFile, File snapshotFile,
+      String courseName, int enrollmentCapacity, int waitlistCapacity) throws IOException {
+    ExceptionalCourseEnrollment course =
+        new ExceptionalCourseEnrollment(courseName, enrollmentCapacity, waitlistCapacity);
+    RosterLoadSummary summary = course.bulkLoadRoster(rosterFile);
+    write(course, snapshotFile);
+    return summary;
+  }
+
+  /**
+   * Converts the roster of a snapshot to the text roster format written by saveRoster()
+   *
+   * @param snapshotFile the snapshot to read
+   * @param rosterFile   the text roster to write
+   * @throws IOException if a file could not be read or written
+   */
+  public static void snapshotToText(File snapshotFile, File rosterFile) throws IOException {
+    open(snapshotFile).toCourseEnrollment().saveRoster(rosterFile);
+  }
+
+  /**
+   * Converts a course state file, as written by saveCourseState(), to a snapshot. Nothing is lost
+   * since both formats hold the whole course enrollment.
+   *
+   * @param stateFile    the course state file to read
+   * @param snapshotFile the snapshot to write
+   * @throws IOException         if a file could not be read or written
+   * @throws DataFormatException if the course state file is not valid
+   */
+  public static void stateToSnapshot(File stateFile, File snapshotFile)
+      throws IOException, DataFormatException {
+    write(ExceptionalCourseEnrollment.loadCourseState(stateFile), snapshotFile);
+  }
+
+  /**
+   * Converts a snapshot to the course state format written by saveCourseState()
+   *
+   * @param snapshotFile the snapshot to read
+   * @param stateFile    the course state file to write
+   * @throws IOException if a file could not be read or written
+   */
+  public static void snapshotToState(File snapshotFile, File stateFile) throws IOException {
+    open(snapshotFile).toCourseEnrollment().saveCourseState(stateFile);
+  }
+}
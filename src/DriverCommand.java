@@ -0,0 +1,286 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The DriverCommand class parses one command line of ExceptionalCourseEnrollmentDriver in a
+//        single pass into a typed command, checking its syntax before anything is run.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * The grammar of a command line, where trailing whitespace is ignored: <BR>
+ * 1 course_name enrollment_capacity waitlist_capacity <BR>
+ * 2 name:wisc_email:campus_ID:true|false <BR>
+ * 3 name:wisc_email:campus_ID:true|false <BR>
+ * 4 campus_ID <BR>
+ * 5, 6, 7, 8 or 9 <BR>
+ * a course_index <BR>
+ * c campus_ID <BR>
+ * e (or b)
+ *
+ * Parsing walks the line once with indexOf and reads numbers and campusIDs in place. The only
+ * strings created are the course name, student name and email a command carries. A line that does
+ * not follow the grammar is rejected by returning null rather than throwing. A student name or email
+ * may not contain a comma, since it could not be told apart from the ", " separating the fields of
+ * a saved roster.
+ *
+ * Only the syntax is checked: a capacity out of range, an invalid email or a campusID that is not
+ * 10 digits are reported by the command when it runs, with the same messages as before.
+ */
+class DriverCommand {
+  /** The kinds of commands, in the order of the menu */
+  enum Type {
+    CREATE_COURSE, ENROLL, WAITLIST, DROP, PRINT_ROSTER, PRINT_WAITLIST, SAVE_ROSTER,
+    LOAD_ROSTER, PRINT_ALL, SWITCH_COURSE, PRINT_SCHEDULE, EXIT
+  }
+
+  /** Returned by parseInt() for a range that is not a number */
+  private static final long INVALID = Long.MIN_VALUE;
+
+  private final Type type;
+  /** arguments of CREATE_COURSE */
+  private String courseName;
+  private int enrollmentCapacity;
+  private int waitlistCapacity;
+  /** arguments of ENROLL and WAITLIST */
+  private String studentName;
+  private String email;
+  private boolean prerequisiteSatisfied;
+  /** argument of ENROLL, WAITLIST, DROP and PRINT_SCHEDULE, -1 if it is not 10 digits */
+  private long campusID = -1;
+  /** argument of SWITCH_COURSE */
+  private int courseIndex;
+
+  /**
+   * Creates a command with no arguments set
+   *
+   * @param type the kind of command
+   */
+  private DriverCommand(Type type) {
+    this.type = type;
+  }
+
+  /**
+   * Parses a command line
+   *
+   * @param line the command line
+   * @return the command, or null if line does not follow the grammar
+   */
+  static DriverCommand parse(String line) {
+    int end = line.length();
+    while(end > 0 && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    if(end == 0) {
+      return null;
+    }
+    char code = line.charAt(0);
+    if(end == 1) {
+      switch(code) {
+        case '5':
+          return new DriverCommand(Type.PRINT_ROSTER);
+        case '6':
+          return new DriverCommand(Type.PRINT_WAITLIST);
+        case '7':
+          return new DriverCommand(Type.SAVE_ROSTER);
+        case '8':
+          return new DriverCommand(Type.LOAD_ROSTER);
+        case '9':
+          return new DriverCommand(Type.PRINT_ALL);
+        case 'e':
+        case 'b':
+          return new DriverCommand(Type.EXIT);
+        default:
+          return null;
+      }
+    }
+    // every other command has arguments, after a single space
+    if(line.charAt(1) != ' ' || end == 2) {
+      return null;
+    }
+    DriverCommand command;
+    switch(code) {
+      case '1':
+        command = new DriverCommand(Type.CREATE_COURSE);
+        int nameEnd = line.indexOf(' ', 2);
+        int capacityEnd = nameEnd < 0 ? -1 : line.indexOf(' ', nameEnd + 1);
+        if(nameEnd == 2 || capacityEnd < 0) {
+          return null;
+        }
+        command.courseName = line.substring(2, nameEnd);
+        long enrollmentCapacity = parseInt(line, nameEnd + 1, capacityEnd);
+        long waitlistCapacity = parseInt(line, capacityEnd + 1, end);
+        if(enrollmentCapacity == INVALID || waitlistCapacity == INVALID) {
+          return null;
+        }
+        command.enrollmentCapacity = (int) enrollmentCapacity;
+        command.waitlistCapacity = (int) waitlistCapacity;
+        return command;
+      case '2':
+      case '3':
+        command = new DriverCommand(code == '2' ? Type.ENROLL : Type.WAITLIST);
+        int nameColon = line.indexOf(':', 2);
+        int emailColon = nameColon < 0 ? -1 : line.indexOf(':', nameColon + 1);
+        int idColon = emailColon < 0 ? -1 : line.indexOf(':', emailColon + 1);
+        if(idColon < 0) {
+          return null;
+        }
+        int comma = line.indexOf(',', 2);
+        if(comma >= 0 && comma < emailColon) { // a comma in the name or email
+          return null;
+        }
+        // the flag is the rest of the line, so a fifth field makes it invalid
+        int flagLength = end - idColon - 1;
+        if(flagLength == 4 && line.regionMatches(true, idColon + 1, "true", 0, 4)) {
+          command.prerequisiteSatisfied = true;
+        }
+        else if(flagLength != 5 || !line.regionMatches(true, idColon + 1, "false", 0, 5)) {
+          return null;
+        }
+        command.studentName = line.substring(2, nameColon);
+        command.email = line.substring(nameColon + 1, emailColon);
+        command.campusID = StudentRecord.parseCampusID(line, emailColon + 1, idColon);
+        return command;
+      case '4':
+      case 'c':
+        int space = line.indexOf(' ', 2);
+        if(space >= 0 && space < end) { // more than one argument
+          return null;
+        }
+        command = new DriverCommand(code == '4' ? Type.DROP : Type.PRINT_SCHEDULE);
+        command.campusID = StudentRecord.parseCampusID(line, 2, end);
+        return command;
+      case 'a':
+        long index = parseInt(line, 2, end);
+        if(index == INVALID) {
+          return null;
+        }
+        command = new DriverCommand(Type.SWITCH_COURSE);
+        command.courseIndex = (int) index;
+        return command;
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Parses an int written in decimal, with an optional minus sign, between start (inclusive) and
+   * end (exclusive) in line, without creating any intermediate string or exception
+   *
+   * @param line  the command line
+   * @param start the index of the first character of the number
+   * @param end   the index after the last character of the number
+   * @return the number, or INVALID if the range is empty, holds anything but digits, or does not
+   *         fit in an int
+   */
+  private static long parseInt(String line, int start, int end) {
+    boolean negative = start < end && line.charAt(start) == '-';
+    if(negative) {
+      start++;
+    }
+    if(start == end || end - start > 10) {
+      return INVALID;
+    }
+    long value = 0;
+    for(int i = start; i < end; i++) {
+      char c = line.charAt(i);
+      if(c < '0' || c > '9') {
+        return INVALID;
+      }
+      value = value * 10 + (c - '0');
+    }
+    value = negative ? -value : value;
+    return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? INVALID : value;
+  }
+
+  /**
+   * Getter for the kind of command
+   *
+   * @return the type of this command
+   */
+  Type getType() {
+    return type;
+  }
+
+  /**
+   * Getter for the name of the course to create
+   *
+   * @return the course name of a CREATE_COURSE command
+   */
+  String getCourseName() {
+    return courseName;
+  }
+
+  /**
+   * Getter for the enrollment capacity of the course to create
+   *
+   * @return the enrollment capacity of a CREATE_COURSE command
+   */
+  int getEnrollmentCapacity() {
+    return enrollmentCapacity;
+  }
+
+  /**
+   * Getter for the waitlist capacity of the course to create
+   *
+   * @return the waitlist capacity of a CREATE_COURSE command
+   */
+  int getWaitlistCapacity() {
+    return waitlistCapacity;
+  }
+
+  /**
+   * Getter for the name of the student
+   *
+   * @return the student name of an ENROLL or WAITLIST command
+   */
+  String getStudentName() {
+    return studentName;
+  }
+
+  /**
+   * Getter for the email of the student
+   *
+   * @return the email of an ENROLL or WAITLIST command
+   */
+  String getEmail() {
+    return email;
+  }
+
+  /**
+   * Getter for the campusID of the student
+   *
+   * @return the campusID of an ENROLL, WAITLIST, DROP or PRINT_SCHEDULE command, or -1 if it is not
+   *         made of exactly 10 digits
+   */
+  long getCampusID() {
+    return campusID;
+  }
+
+  /**
+   * Checks if the student has satisfied the prerequisites
+   *
+   * @return the prerequisite flag of an ENROLL or WAITLIST command
+   */
+  boolean isPrerequisiteSatisfied() {
+    return prerequisiteSatisfied;
+  }
+
+  /**
+   * Getter for the index of the course to switch to
+   *
+   * @return the course index of a SWITCH_COURSE command
+   */
+  int getCourseIndex() {
+    return courseIndex;
+  }
+}
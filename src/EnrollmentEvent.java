@@ -0,0 +1,133 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentEvent class describes one change made to an ExceptionalCourseEnrollment,
+//        as delivered to its EnrollmentListeners.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable record of a change: its type, the course it happened in, the students it concerns
+ * and the enrollment capacity of the course right after the change.
+ */
+public class EnrollmentEvent {
+  /** The kinds of changes made to a course enrollment */
+  public enum Type {
+    /** A student was enrolled */
+    ENROLLED,
+    /** A student was added to the waitlist */
+    WAITLISTED,
+    /** A student dropped the course */
+    DROPPED,
+    /** One or more students were moved from the waitlist into the roster */
+    PROMOTED,
+    /** The enrollment capacity changed */
+    CAPACITY_CHANGED
+  }
+
+  /** the kind of change */
+  private final Type type;
+  /** name of the course that changed */
+  private final String courseName;
+  /** students concerned by the change, in order, empty for CAPACITY_CHANGED */
+  private final List<StudentRecord> students;
+  /** enrollment capacity of the course right after the change */
+  private final int enrollmentCapacity;
+
+  /**
+   * Creates an event concerning a single student
+   *
+   * @param type               the kind of change
+   * @param courseName         the name of the course that changed
+   * @param student            the student concerned by the change
+   * @param enrollmentCapacity the enrollment capacity right after the change
+   */
+  EnrollmentEvent(Type type, String courseName, StudentRecord student, int enrollmentCapacity) {
+    this(type, courseName, Collections.singletonList(student), enrollmentCapacity);
+  }
+
+  /**
+   * Creates an event concerning any number of students
+   *
+   * @param type               the kind of change
+   * @param courseName         the name of the course that changed
+   * @param students           the students concerned by the change, not copied
+   * @param enrollmentCapacity the enrollment capacity right after the change
+   */
+  EnrollmentEvent(Type type, String courseName, List<StudentRecord> students,
+      int enrollmentCapacity) {
+    this.type = type;
+    this.courseName = courseName;
+    this.students = Collections.unmodifiableList(students);
+    this.enrollmentCapacity = enrollmentCapacity;
+  }
+
+  /**
+   * Getter for the kind of change
+   *
+   * @return the type of this event
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Getter for the name of the course that changed
+   *
+   * @return the course name
+   */
+  public String getCourseName() {
+    return courseName;
+  }
+
+  /**
+   * Getter for the students concerned by the change. A PROMOTED event lists every promoted student
+   * in the order they left the waitlist.
+   *
+   * @return an unmodifiable list of students, empty for a CAPACITY_CHANGED event
+   */
+  public List<StudentRecord> getStudents() {
+    return students;
+  }
+
+  /**
+   * Getter for the first student concerned by the change
+   *
+   * @return the first student, or null for a CAPACITY_CHANGED event
+   */
+  public StudentRecord getStudent() {
+    return students.isEmpty() ? null : students.get(0);
+  }
+
+  /**
+   * Getter for the enrollment capacity of the course right after the change
+   *
+   * @return the enrollment capacity
+   */
+  public int getEnrollmentCapacity() {
+    return enrollmentCapacity;
+  }
+
+  /**
+   * Returns a String representation of this event in the following format: <BR>
+   * courseName TYPE [students] (capacity X)
+   *
+   * @return the string representation of this event
+   */
+  @Override
+  public String toString() {
+    return courseName + " " + type + " " + students + " (capacity " + enrollmentCapacity + ")";
+  }
+}
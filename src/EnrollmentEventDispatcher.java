@@ -0,0 +1,140 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentEventDispatcher class delivers EnrollmentEvents to EnrollmentListeners on
+//        a background thread, through a bounded ring buffer, so that listeners never slow down the
+//        call that changed the course.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ArrayBlockingQueue.html
+//                 -Referenced for offer() never blocking the publisher
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishing an event only offers it to a fixed-size queue. When the queue is full the event is
+ * dropped and counted rather than making the course wait for slow listeners. A single daemon
+ * thread takes the events in order and calls each listener.
+ */
+class EnrollmentEventDispatcher {
+  /** Number of events the shared dispatcher can hold before it starts dropping them */
+  static final int DEFAULT_CAPACITY = 8192;
+  /** Dispatcher shared by every course enrollment */
+  static final EnrollmentEventDispatcher SHARED = new EnrollmentEventDispatcher(DEFAULT_CAPACITY);
+
+  /** An event and the listeners it goes to */
+  private static class Delivery {
+    private final List<EnrollmentListener> listeners;
+    private final EnrollmentEvent event;
+
+    private Delivery(List<EnrollmentListener> listeners, EnrollmentEvent event) {
+      this.listeners = listeners;
+      this.event = event;
+    }
+  }
+
+  /** Events waiting to be delivered */
+  private final ArrayBlockingQueue<Delivery> queue;
+  /** Number of events dropped because the queue was full */
+  private final AtomicLong dropped = new AtomicLong();
+  /** Number of events fully delivered to their listeners */
+  private final AtomicLong delivered = new AtomicLong();
+  /** Notified after every delivery, for awaitDelivered() */
+  private final Object deliveredLock = new Object();
+  /** Number of events accepted by publish() */
+  private final AtomicLong published = new AtomicLong();
+
+  /**
+   * Creates a dispatcher and starts its daemon thread
+   *
+   * @param capacity the number of events that can wait to be delivered
+   */
+  EnrollmentEventDispatcher(int capacity) {
+    queue = new ArrayBlockingQueue<Delivery>(capacity);
+    Thread thread = new Thread(() -> {
+      while(true) {
+        Delivery delivery;
+        try {
+          delivery = queue.take();
+        }
+        catch(InterruptedException e) {
+          return;
+        }
+        for(EnrollmentListener listener : delivery.listeners) {
+          try {
+            listener.onEvent(delivery.event);
+          }
+          catch(RuntimeException e) {
+            // one failing listener must not stop the others
+          }
+        }
+        delivered.incrementAndGet();
+        synchronized(deliveredLock) {
+          deliveredLock.notifyAll();
+        }
+      }
+    }, "enrollment-event-dispatcher");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Queues an event for the listeners without ever blocking
+   *
+   * @param listeners the listeners to call, read when the event is delivered
+   * @param event     the event to deliver
+   * @return true if the event was queued, false if it was dropped because the queue is full
+   */
+  boolean publish(List<EnrollmentListener> listeners, EnrollmentEvent event) {
+    if(!queue.offer(new Delivery(listeners, event))) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    published.incrementAndGet();
+    return true;
+  }
+
+  /**
+   * Getter for the number of events dropped because the queue was full
+   *
+   * @return the number of dropped events
+   */
+  long getDropped() {
+    return dropped.get();
+  }
+
+  /**
+   * Waits until every event published so far has been delivered
+   *
+   * @param timeoutMillis the longest time to wait, in milliseconds
+   * @return true if every event was delivered, false if the timeout elapsed first
+   * @throws InterruptedException if the calling thread is interrupted while waiting
+   */
+  boolean awaitDelivered(long timeoutMillis) throws InterruptedException {
+    long target = published.get();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    synchronized(deliveredLock) {
+      // woken by each delivery rather than polling, so a caller waiting after every command (the
+      // driver) does not pay a sleep per command
+      while(delivered.get() < target) {
+        long left = deadline - System.nanoTime();
+        if(left <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(deliveredLock, left);
+      }
+    }
+    return true;
+  }
+}
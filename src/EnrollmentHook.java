@@ -0,0 +1,49 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentHook interface is told synchronously about every change to the roster and
+//        waitlist of an ExceptionalCourseEnrollment, so that indexes spanning many courses, like
+//        the one kept by CourseCatalog, never fall behind the courses.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Unlike an EnrollmentListener, a hook is called on the thread making the change while the write
+ * lock of the course is held, so it must be quick and must not call back into the course.
+ */
+interface EnrollmentHook {
+  /**
+   * Called when a student is put in the roster, which also takes them off the waitlist
+   *
+   * @param course  the course that changed
+   * @param student the enrolled student
+   */
+  void enrolled(ExceptionalCourseEnrollment course, StudentRecord student);
+
+  /**
+   * Called when a student is added to the waitlist
+   *
+   * @param course  the course that changed
+   * @param student the waitlisted student
+   */
+  void waitlisted(ExceptionalCourseEnrollment course, StudentRecord student);
+
+  /**
+   * Called when a student leaves the course: dropped from the roster, or taken out of the roster
+   * and waitlist because the hook is being detached. A student is never in both lists at once.
+   *
+   * @param course   the course that changed
+   * @param campusID the campusID of the student who left
+   */
+  void dropped(ExceptionalCourseEnrollment course, long campusID);
+}
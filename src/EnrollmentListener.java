@@ -0,0 +1,32 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentListener interface is implemented by anything that wants to be told about
+//        the changes made to an ExceptionalCourseEnrollment, such as audit, notifications or
+//        metrics.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Listeners are called on the event dispatcher thread, never on the thread that changed the
+ * course, and receive the events of one course in the order the changes were made. A listener that
+ * throws an exception does not stop the other listeners or later events.
+ */
+public interface EnrollmentListener {
+  /**
+   * Called once for every change made to a course this listener was added to
+   *
+   * @param event the change that was made
+   */
+  void onEvent(EnrollmentEvent event);
+}
@@ -0,0 +1,713 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentLog class is an append-only write-ahead log of the changes made to an
+//        ExceptionalCourseEnrollment. Changes are buffered in memory and written to disk in groups
+//        by a background thread, so that each change costs an append rather than a full save.
+//        A course enrollment is recovered by loading its last saved state and replaying the log.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/java/nio/channels/FileChannel.html
+//                 -Referenced for force() when committing a group of changes
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+
+/**
+ * Each change is one line of the log file: <BR>
+ * E name, email, campusID, preReq (student enrolled)<BR>
+ * W name, email, campusID, preReq (student added to the waitlist)<BR>
+ * D campusID (student dropped)<BR>
+ * P campusID (student dropped and head of the waitlist promoted)<BR>
+ * X increase (enrollment capacity expanded)<BR>
+ * A increase (enrollment capacity expanded and the new seats filled from the waitlist)
+ *
+ * Every truncate() starts a new generation of the log, written as a first line "G generation"; a
+ * log that was never truncated has no such line and is generation 0. A state saved while the log
+ * is attached records its generation and how many of its changes it already includes, so that
+ * recover() applies each change exactly once even if the log was not emptied after a checkpoint.
+ *
+ * Students are written with StudentRecord.appendEscapedTo(), so that a name or email containing a
+ * comma or a line break is read back as it was instead of breaking the line into other fields.
+ *
+ * Appending only adds the line to an in-memory buffer. A daemon thread writes the buffered lines
+ * and forces them to disk every commit interval, so many changes share one fsync. sync() commits
+ * immediately for callers that need a change to be durable before going on.
+ *
+ * By default a change is acknowledged, by the method that made it returning, before it is on
+ * disk: a crash loses the changes of up to the last commit interval (10 ms by default) even though
+ * they were acknowledged. A synchronous log closes that window: the course enrollment waits, after
+ * releasing its lock, until the change is on disk before returning. Changes made by other threads
+ * meanwhile are committed by the same write and force, so a busy course still pays one fsync per
+ * group rather than per change.
+ *
+ * The log fails fast: once a group of changes could not be written, whatever part of it reached the
+ * file is cut off again, nothing more is committed, and every later change is rejected with an
+ * IllegalStateException. The file therefore always ends with the last group that was committed
+ * whole, with no hole and no torn line in the middle.
+ */
+public class EnrollmentLog implements Closeable {
+  /** Default time in milliseconds between two group commits */
+  public static final long DEFAULT_COMMIT_INTERVAL = 10;
+  /** Start of the first line of a log, followed by its generation */
+  private static final String GENERATION_PREFIX = "G ";
+  /** Size in bytes of the buffer used to read an existing log file */
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+  /** Channel appending to the log file */
+  private final FileChannel channel;
+  /** true if changes must be on disk before they are acknowledged */
+  private final boolean synchronous;
+  /** Changes appended since the last commit, guarded by pendingLock */
+  private StringBuilder pending = new StringBuilder();
+  /** Sequence number of the last change appended, counting from 1, guarded by pendingLock */
+  private long appended;
+  /** Sequence number of the last change forced to disk */
+  private volatile long durable;
+  /** Generation of the log file and number of changes in it, guarded by pendingLock */
+  private long generation;
+  private long entries;
+  /** Lock held while pending is read or replaced */
+  private final Object pendingLock = new Object();
+  /** Lock held while a group of changes is written and forced to disk */
+  private final Object commitLock = new Object();
+  /** Thread committing the pending changes every commit interval */
+  private final Thread committer;
+  /** Set once close() has been called */
+  private volatile boolean closed;
+  /** First commit failure, after which nothing is committed or appended anymore */
+  private volatile IOException failure;
+
+  /**
+   * Opens a log file for appending, creating it if needed, with the default commit interval
+   *
+   * @param file the log file
+   * @throws IOException if the file could not be opened
+   */
+  public EnrollmentLog(File file) throws IOException {
+    this(file, DEFAULT_COMMIT_INTERVAL);
+  }
+
+  /**
+   * Opens a log file for appending, creating it if needed
+   *
+   * @param file           the log file
+   * @param commitInterval the time in milliseconds between two group commits, must be positive
+   * @throws IOException              if the file could not be opened
+   * @throws IllegalArgumentException with message "Commit interval must be greater than zero!" if
+   *                                  commitInterval is not larger than zero
+   */
+  public EnrollmentLog(File file, long commitInterval) throws IOException {
+    this(file, commitInterval, false);
+  }
+
+  /**
+   * Opens a log file for appending, creating it if needed, and chooses whether changes are
+   * acknowledged before or after they are on disk
+   *
+   * @param file           the log file
+   * @param commitInterval the time in milliseconds between two group commits, must be positive
+   * @param synchronous    true to make every change wait until it is on disk, false to let a crash
+   *                       lose up to commitInterval of acknowledged changes
+   * @throws IOException              if the file could not be opened
+   * @throws IllegalArgumentException with message "Commit interval must be greater than zero!" if
+   *                                  commitInterval is not larger than zero
+   */
+  public EnrollmentLog(File file, long commitInterval, boolean synchronous) throws IOException {
+    this(open(file, commitInterval), commitInterval, synchronous);
+    try {
+      resume(file);
+    }
+    catch(IOException e) {
+      try {
+        close();
+      }
+      catch(IOException closeFailure) {
+        e.addSuppressed(closeFailure);
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Opens the channel of a log file, once the commit interval is known to be valid
+   *
+   * @param file           the log file
+   * @param commitInterval the time in milliseconds between two group commits
+   * @return a channel appending to the file
+   * @throws IOException              if the file could not be opened
+   * @throws IllegalArgumentException with message "Commit interval must be greater than zero!" if
+   *                                  commitInterval is not larger than zero
+   */
+  private static FileChannel open(File file, long commitInterval) throws IOException {
+    if(commitInterval <= 0) {
+      throw new IllegalArgumentException("Commit interval must be greater than zero!");
+    }
+    return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+  }
+
+  /**
+   * Reads the generation and counts the changes of an existing log file, and cuts off a last line
+   * left unfinished by a crash, so that new changes do not end up after a torn line
+   *
+   * @param file the log file, already open for appending
+   * @throws IOException if the file could not be read, or if its generation line is not valid
+   */
+  private void resume(File file) throws IOException {
+    long lines = 0;
+    long length = 0;
+    long complete = 0; // length of the file up to its last line break
+    StringBuilder first = new StringBuilder();
+    try (InputStream in = Files.newInputStream(file.toPath())) {
+      byte[] buffer = new byte[READ_BUFFER_SIZE];
+      int read;
+      while((read = in.read(buffer)) > 0) {
+        for(int i = 0; i < read; i++) {
+          if(buffer[i] == '\n') {
+            lines++;
+            complete = length + i + 1;
+          }
+          else if(lines == 0 && first.length() < 32) {
+            first.append((char) buffer[i]);
+          }
+        }
+        length += read;
+      }
+    }
+    if(complete < length) {
+      channel.truncate(complete);
+      channel.force(true);
+    }
+    long resumed = 0;
+    if(lines > 0 && first.indexOf(GENERATION_PREFIX) == 0) {
+      try {
+        resumed = Long.parseLong(first.substring(GENERATION_PREFIX.length()));
+        lines--;
+      }
+      catch(NumberFormatException e) {
+        throw new IOException("Bad enrollment log line: " + first);
+      }
+    }
+    synchronized(pendingLock) {
+      generation = resumed;
+      entries = lines;
+    }
+  }
+
+  /**
+   * Creates a log appending to an open channel, for example one that fails on purpose in a test.
+   * The channel is taken to be at the end of an empty file.
+   *
+   * @param channel        the channel to append to, closed by close()
+   * @param commitInterval the time in milliseconds between two group commits, must be positive
+   * @param synchronous    true to make every change wait until it is on disk
+   */
+  EnrollmentLog(FileChannel channel, long commitInterval, boolean synchronous) {
+    this.channel = channel;
+    this.synchronous = synchronous;
+    // The committer waits on commitLock rather than being interrupted, since interrupting a thread
+    // blocked on a FileChannel closes the channel
+    committer = new Thread(() -> {
+      while(true) {
+        synchronized(commitLock) {
+          try {
+            if(!closed) {
+              commitLock.wait(commitInterval);
+            }
+          }
+          catch(InterruptedException e) {
+            return;
+          }
+          if(closed) {
+            return; // close() commits what is left
+          }
+        }
+        try {
+          commit();
+        }
+        catch(IOException e) {
+          return; // commit() kept the failure for sync() and close() to report
+        }
+      }
+    }, "enrollment-log-committer");
+    committer.setDaemon(true);
+    committer.start();
+  }
+
+  /**
+   * Records that a student was enrolled
+   *
+   * @param student the enrolled student
+   * @return the sequence number of the change
+   */
+  long logEnroll(StudentRecord student) {
+    return append('E', student);
+  }
+
+  /**
+   * Records that a student was added to the waitlist
+   *
+   * @param student the waitlisted student
+   * @return the sequence number of the change
+   */
+  long logWaitlist(StudentRecord student) {
+    return append('W', student);
+  }
+
+  /**
+   * Records that a student dropped the course
+   *
+   * @param campusID the campusID of the dropped student
+   * @return the sequence number of the change
+   */
+  long logDrop(long campusID) {
+    return append('D', StudentRecord.formatCampusID(campusID));
+  }
+
+  /**
+   * Records that a student dropped the course and the head of the waitlist was promoted
+   *
+   * @param campusID the campusID of the dropped student
+   * @return the sequence number of the change
+   */
+  long logDropAndPromote(long campusID) {
+    return append('P', StudentRecord.formatCampusID(campusID));
+  }
+
+  /**
+   * Records that the enrollment capacity was expanded
+   *
+   * @param increase the amount the capacity was increased by
+   * @return the sequence number of the change
+   */
+  long logExpand(int increase) {
+    return append('X', Integer.toString(increase));
+  }
+
+  /**
+   * Records that the enrollment capacity was expanded and the new seats filled from the waitlist
+   *
+   * @param increase the amount the capacity was increased by
+   * @return the sequence number of the change
+   */
+  long logExpandAndPromote(int increase) {
+    return append('A', Integer.toString(increase));
+  }
+
+  /**
+   * Checks that changes can still be logged. The course enrollment calls it before making a change,
+   * so that a change the log would reject is not made at all.
+   *
+   * @throws IllegalStateException with message "The enrollment log could not be written!" if a
+   *                               commit failed
+   */
+  void checkWritable() {
+    IOException failed = failure;
+    if(failed != null) {
+      throw new IllegalStateException("The enrollment log could not be written!", failed);
+    }
+  }
+
+  /**
+   * Adds one line to the pending changes
+   *
+   * @param operation the letter identifying the change
+   * @param argument  the rest of the line
+   * @return the sequence number of the change
+   * @throws IllegalStateException if a commit failed, see checkWritable()
+   */
+  private long append(char operation, String argument) {
+    checkWritable();
+    synchronized(pendingLock) {
+      pending.append(operation).append(' ').append(argument).append('\n');
+      entries++;
+      return ++appended;
+    }
+  }
+
+  /**
+   * Adds one line holding a student to the pending changes
+   *
+   * @param operation the letter identifying the change
+   * @param student   the student, written escaped
+   * @return the sequence number of the change
+   * @throws IllegalStateException if a commit failed, see checkWritable()
+   */
+  private long append(char operation, StudentRecord student) {
+    checkWritable();
+    synchronized(pendingLock) {
+      pending.append(operation).append(' ');
+      try {
+        student.appendEscapedTo(pending);
+      }
+      catch(IOException e) {
+        // a StringBuilder never throws
+      }
+      pending.append('\n');
+      entries++;
+      return ++appended;
+    }
+  }
+
+  /**
+   * Writes the pending changes to the log file and forces them to disk. If that fails, the part of
+   * the changes that was written is cut off and the log stops for good.
+   *
+   * @throws IOException if the changes could not be written, now or by an earlier commit
+   */
+  private void commit() throws IOException {
+    synchronized(commitLock) {
+      IOException failed = failure;
+      if(failed != null) {
+        throw failed;
+      }
+      StringBuilder batch;
+      long last;
+      synchronized(pendingLock) {
+        if(pending.length() == 0) {
+          return;
+        }
+        batch = pending;
+        last = appended;
+        // appenders keep going in a new buffer while this batch is written
+        pending = new StringBuilder(batch.capacity());
+      }
+      ByteBuffer bytes = StandardCharsets.UTF_8.encode(CharBuffer.wrap(batch));
+      long committed = channel.size();
+      try {
+        while(bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+        channel.force(false);
+        durable = last;
+      }
+      catch(IOException e) {
+        failure = e; // set first, so that no change is accepted past this point
+        try {
+          channel.truncate(committed); // a torn line would break the replay of the whole log
+        }
+        catch(IOException truncateFailure) {
+          e.addSuppressed(truncateFailure);
+        }
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Getter for the generation of the log, which grows by one with every truncate()
+   *
+   * @return the generation of the log
+   */
+  long getGeneration() {
+    synchronized(pendingLock) {
+      return generation;
+    }
+  }
+
+  /**
+   * Returns the number of changes in the current generation of the log, including the ones not
+   * committed yet
+   *
+   * @return the number of changes logged since the generation started
+   */
+  long getEntries() {
+    synchronized(pendingLock) {
+      return entries;
+    }
+  }
+
+  /**
+   * Checks whether changes must be on disk before they are acknowledged
+   *
+   * @return true if this log was opened as synchronous
+   */
+  public boolean isSynchronous() {
+    return synchronous;
+  }
+
+  /**
+   * Waits until a change is on disk. If it is not yet, every change pending is committed at once;
+   * a thread that finds another one committing waits for it and then finds its change already on
+   * disk, so concurrent changes share one write and force.
+   *
+   * @param sequence the sequence number returned when the change was logged
+   * @throws UncheckedIOException if the change could not be written, now or by an earlier commit
+   */
+  void awaitDurable(long sequence) {
+    if(durable >= sequence) {
+      return;
+    }
+    synchronized(commitLock) {
+      if(durable >= sequence) {
+        return;
+      }
+      try {
+        commit();
+      }
+      catch(IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Commits every change appended so far, without waiting for the next group commit
+   *
+   * @throws IOException if the changes could not be written, or if an earlier commit failed
+   */
+  public void sync() throws IOException {
+    commit();
+  }
+
+  /**
+   * Commits the pending changes, then stops the background thread and closes the log file
+   *
+   * @throws IOException if the last changes could not be written, or if a background commit
+   *                     failed
+   */
+  @Override
+  public void close() throws IOException {
+    synchronized(commitLock) {
+      closed = true;
+      commitLock.notifyAll();
+    }
+    try {
+      committer.join();
+    }
+    catch(InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      sync();
+    }
+    finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Empties the log file after the state it describes has been saved elsewhere, and starts the
+   * next generation of the log. Must not be called while the course enrollment is being changed;
+   * saveCheckpoint() takes care of that.
+   *
+   * @throws IOException if the log file could not be truncated, or if an earlier commit failed
+   */
+  public void truncate() throws IOException {
+    synchronized(commitLock) {
+      IOException failed = failure;
+      if(failed != null) {
+        throw failed;
+      }
+      long next;
+      synchronized(pendingLock) {
+        pending.setLength(0);
+        durable = appended; // the discarded changes are in the saved state instead
+        next = generation + 1;
+      }
+      try {
+        channel.truncate(0);
+        ByteBuffer header = StandardCharsets.UTF_8.encode(GENERATION_PREFIX + next + "\n");
+        while(header.hasRemaining()) {
+          channel.write(header);
+        }
+        channel.force(true);
+      }
+      catch(IOException e) {
+        failure = e; // the file is in no known generation anymore
+        throw e;
+      }
+      synchronized(pendingLock) {
+        generation = next;
+        entries = 0;
+      }
+    }
+  }
+
+  /**
+   * Applies every change recorded in a log file to a course enrollment, in order. The changes are
+   * applied directly, without the checks and messages of the public methods, since they were valid
+   * when they were logged. A last line that is not valid is ignored, as it can only come from a
+   * crash while it was being written.
+   *
+   * @param file   the log file to read
+   * @param course the course enrollment in the state it was when the log was started
+   * @return the number of changes applied
+   * @throws IOException         if the log file could not be read
+   * @throws DataFormatException if a line other than the last one is not valid
+   */
+  public static int replay(File file, ExceptionalCourseEnrollment course)
+      throws IOException, DataFormatException {
+    return replay(file, course, -1, 0);
+  }
+
+  /**
+   * Applies the changes of a log file that a saved state does not include yet. If the log is still
+   * in the generation the state was saved in, its first savedEntries changes are skipped; if it is
+   * in the next generation, it was emptied after the state was saved and every change is applied.
+   *
+   * @param file            the log file to read
+   * @param course          the course enrollment restored from the saved state
+   * @param savedGeneration the generation of the log when the state was saved, or -1 to apply
+   *                        every change
+   * @param savedEntries    the number of changes of that generation the state includes
+   * @return the number of changes applied
+   * @throws IOException         if the log file could not be read
+   * @throws DataFormatException if a line other than the last one is not valid, or with message
+   *                             "Enrollment log does not follow the saved state!" if the log is
+   *                             in neither of those generations
+   */
+  private static int replay(File file, ExceptionalCourseEnrollment course, long savedGeneration,
+      long savedEntries) throws IOException, DataFormatException {
+    EnrollmentLog log = course.getLog();
+    course.setLog(null); // replayed changes are already in the log
+    int applied = 0;
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8))) {
+      String line = reader.readLine();
+      long generation = 0;
+      if(line != null && line.startsWith(GENERATION_PREFIX)) {
+        try {
+          generation = Long.parseLong(line.substring(GENERATION_PREFIX.length()));
+        }
+        catch(NumberFormatException e) {
+          throw new DataFormatException("Bad enrollment log line: " + line);
+        }
+        line = reader.readLine();
+      }
+      long skip = 0;
+      if(savedGeneration >= 0) {
+        if(generation == savedGeneration) {
+          skip = savedEntries; // already in the state, the log was not emptied after saving it
+        }
+        else if(generation != savedGeneration + 1) {
+          throw new DataFormatException("Enrollment log does not follow the saved state!");
+        }
+      }
+      for(; skip > 0 && line != null; skip--) {
+        line = reader.readLine();
+      }
+      while(line != null) {
+        String next = reader.readLine();
+        try {
+          apply(line, course);
+          applied++;
+        }
+        catch(DataFormatException | RuntimeException e) {
+          if(next != null) {
+            throw new DataFormatException("Bad enrollment log line: " + line);
+          }
+        }
+        line = next;
+      }
+    }
+    finally {
+      course.setLog(log);
+    }
+    return applied;
+  }
+
+  /**
+   * Applies one line of the log to a course enrollment
+   *
+   * @param line   the line to apply
+   * @param course the course enrollment to change
+   * @throws DataFormatException if the line is not valid
+   */
+  private static void apply(String line, ExceptionalCourseEnrollment course)
+      throws DataFormatException {
+    if(line.length() < 3 || line.charAt(1) != ' ') {
+      throw new DataFormatException("Bad enrollment log line: " + line);
+    }
+    String argument = line.substring(2);
+    switch(line.charAt(0)) {
+      case 'E':
+        course.applyEnroll(ExceptionalCourseEnrollment.escapedLineToRecord(argument));
+        break;
+      case 'W':
+        course.applyWaitlist(ExceptionalCourseEnrollment.escapedLineToRecord(argument));
+        break;
+      case 'D':
+      case 'P':
+        long campusID = StudentRecord.parseCampusID(argument);
+        if(campusID < 0) {
+          throw new DataFormatException("Bad enrollment log line: " + line);
+        }
+        if(line.charAt(0) == 'D') {
+          course.applyDrop(campusID);
+        }
+        else {
+          course.applyDropAndPromote(campusID);
+        }
+        break;
+      case 'X':
+        course.applyExpand(Integer.parseInt(argument));
+        break;
+      case 'A':
+        course.applyExpandAndPromote(Integer.parseInt(argument));
+        break;
+      default:
+        throw new DataFormatException("Bad enrollment log line: " + line);
+    }
+  }
+
+  /**
+   * Recovers a course enrollment from its last saved state and the log of the changes made since
+   *
+   * @param stateFile the file written by saveCourseState()
+   * @param logFile   the log of the changes made after the state was saved
+   * @return the recovered course enrollment
+   * @throws IOException         if a file could not be read
+   * @throws DataFormatException if a file is not valid
+   */
+  public static ExceptionalCourseEnrollment recover(File stateFile, File logFile)
+      throws IOException, DataFormatException {
+    return recover(stateFile, logFile, WaitlistPolicy.FIFO);
+  }
+
+  /**
+   * Recovers a course enrollment whose waitlist is ordered by a policy other than FIFO. The policy
+   * is set before the log is replayed, so that promotions are replayed in the same order as they
+   * were made.
+   *
+   * @param stateFile the file written by saveCourseState()
+   * @param logFile   the log of the changes made after the state was saved
+   * @param policy    the waitlist policy the course enrollment was using
+   * @return the recovered course enrollment
+   * @throws IOException         if a file could not be read
+   * @throws DataFormatException if a file is not valid
+   */
+  public static ExceptionalCourseEnrollment recover(File stateFile, File logFile,
+      WaitlistPolicy policy) throws IOException, DataFormatException {
+    ExceptionalCourseEnrollment.SavedState state =
+        ExceptionalCourseEnrollment.readCourseState(stateFile);
+    ExceptionalCourseEnrollment course = ExceptionalCourseEnrollment.restore(state);
+    course.setWaitlistPolicy(policy);
+    if(logFile.exists()) {
+      // the changes the state already includes are skipped, see saveCourseState()
+      replay(logFile, course, state.logGeneration, state.logEntries);
+    }
+    return course;
+  }
+}
@@ -0,0 +1,382 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentMetrics class counts the outcomes and measures the latency of the main
+//        operations of every ExceptionalCourseEnrollment, and exposes them through JMX and a
+//        periodic text dump.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/atomic/LongAdder.html
+//                 -Referenced for counters updated by many threads without contention
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A single instance, shared by every course enrollment, is returned by get(). It is disabled until
+ * setEnabled(true) is called or the JVM is started with -Denrollment.metrics=true. While disabled,
+ * an instrumented call only reads one volatile flag: the clock is not read and nothing is counted.
+ *
+ * Counters are LongAdders, and each operation records its latencies into one of several
+ * LatencyHistograms chosen by thread, merged when they are read, so that threads enrolling in
+ * different courses rarely contend on the same counter.
+ */
+public class EnrollmentMetrics implements EnrollmentMetricsMXBean {
+  /** Name the metrics are registered under by registerMBean() */
+  public static final String OBJECT_NAME = "ExceptionalCourseEnrollment:type=EnrollmentMetrics";
+
+  /** The instrumented operations */
+  public enum Operation {
+    /** tryEnroll(), and enrollOneStudent() through it */
+    ENROLL,
+    /** tryAddWaitlist(), and addWaitlist() through it */
+    WAITLIST,
+    /** tryDrop(), and dropCourse() through it */
+    DROP,
+    /** saveRoster() */
+    SAVE,
+    /** loadRoster() and bulkLoadRoster() */
+    LOAD
+  }
+
+  /** Number of histograms each operation's latencies are spread over, a power of two */
+  private static final int STRIPES =
+      Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 32) * 2 - 1);
+
+  /** Metrics shared by every course enrollment */
+  private static final EnrollmentMetrics SHARED = new EnrollmentMetrics();
+
+  /** true while metrics are recorded */
+  private volatile boolean enabled = Boolean.getBoolean("enrollment.metrics");
+  /** number of times each outcome was returned, indexed by ordinal */
+  private final LongAdder[] outcomes = new LongAdder[EnrollmentOutcome.values().length];
+  /** latency in nanoseconds of each operation, indexed by ordinal then stripe */
+  private final LatencyHistogram[][] latencies =
+      new LatencyHistogram[Operation.values().length][STRIPES];
+  /** number of students promoted from a waitlist */
+  private final LongAdder promoted = new LongAdder();
+  /** size of the waitlist right after each student joined it */
+  private final LatencyHistogram waitlistDepth = new LatencyHistogram();
+  /** thread running the periodic dump, null if none is running */
+  private ScheduledExecutorService dumper;
+
+  /**
+   * Creates metrics with every counter at zero
+   */
+  private EnrollmentMetrics() {
+    for(int i = 0; i < outcomes.length; i++) {
+      outcomes[i] = new LongAdder();
+    }
+    for(LatencyHistogram[] stripes : latencies) {
+      for(int i = 0; i < STRIPES; i++) {
+        stripes[i] = new LatencyHistogram();
+      }
+    }
+  }
+
+  /**
+   * Getter for the metrics shared by every course enrollment
+   *
+   * @return the shared metrics
+   */
+  public static EnrollmentMetrics get() {
+    return SHARED;
+  }
+
+  /**
+   * Returns the metrics to record to, read once at the start of an instrumented call
+   *
+   * @return the shared metrics, or null if they are disabled
+   */
+  static EnrollmentMetrics active() {
+    return SHARED.enabled ? SHARED : null;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Records a call that returned an outcome
+   *
+   * @param operation the operation called
+   * @param outcome   the outcome it returned
+   * @param start     the value of System.nanoTime() when the call started
+   */
+  void record(Operation operation, EnrollmentOutcome outcome, long start) {
+    stripe(operation).record(System.nanoTime() - start);
+    outcomes[outcome.ordinal()].increment();
+  }
+
+  /**
+   * Records a call that does not return an outcome, such as a save or a load
+   *
+   * @param operation the operation called
+   * @param start     the value of System.nanoTime() when the call started
+   */
+  void record(Operation operation, long start) {
+    stripe(operation).record(System.nanoTime() - start);
+  }
+
+  /**
+   * Returns the histogram the current thread records the latencies of an operation into
+   *
+   * @param operation the operation
+   * @return the histogram of the current thread's stripe
+   */
+  private LatencyHistogram stripe(Operation operation) {
+    // thread ids are handed out in sequence, so the threads of a pool fall in different stripes
+    return latencies[operation.ordinal()][(int) Thread.currentThread().getId() & (STRIPES - 1)];
+  }
+
+  /**
+   * Counts an outcome returned without measuring the latency, for the batch operations
+   *
+   * @param outcome the outcome
+   */
+  void count(EnrollmentOutcome outcome) {
+    outcomes[outcome.ordinal()].increment();
+  }
+
+  /**
+   * Counts students promoted from a waitlist into a roster
+   *
+   * @param students the number of promoted students
+   */
+  void recordPromoted(int students) {
+    promoted.add(students);
+  }
+
+  /**
+   * Records the size of a waitlist right after a student joined it
+   *
+   * @param depth the number of students in the waitlist
+   */
+  void recordWaitlistDepth(int depth) {
+    waitlistDepth.record(depth);
+  }
+
+  /**
+   * Returns the number of times an outcome was returned by an instrumented call
+   *
+   * @param outcome the outcome
+   * @return the number of times it was returned
+   */
+  public long getOutcomeCount(EnrollmentOutcome outcome) {
+    return outcomes[outcome.ordinal()].sum();
+  }
+
+  /**
+   * Returns the latencies, in nanoseconds, of an operation
+   *
+   * @param operation the operation
+   * @return a new histogram holding every latency recorded so far
+   */
+  public LatencyHistogram getLatency(Operation operation) {
+    LatencyHistogram merged = new LatencyHistogram();
+    for(LatencyHistogram stripe : latencies[operation.ordinal()]) {
+      merged.add(stripe);
+    }
+    return merged;
+  }
+
+  /**
+   * Returns the sizes waitlists reached each time a student joined one
+   *
+   * @return the live histogram of waitlist depths
+   */
+  public LatencyHistogram getWaitlistDepth() {
+    return waitlistDepth;
+  }
+
+  @Override
+  public Map<String, Long> getOutcomeCounts() {
+    LinkedHashMap<String, Long> counts = new LinkedHashMap<String, Long>();
+    for(EnrollmentOutcome outcome : EnrollmentOutcome.values()) {
+      counts.put(outcome.name(), getOutcomeCount(outcome));
+    }
+    return counts;
+  }
+
+  @Override
+  public Map<String, Long> getOperationCounts() {
+    LinkedHashMap<String, Long> counts = new LinkedHashMap<String, Long>();
+    for(Operation operation : Operation.values()) {
+      counts.put(operation.name(), getLatency(operation).getCount());
+    }
+    return counts;
+  }
+
+  @Override
+  public Map<String, String> getLatencySummaries() {
+    LinkedHashMap<String, String> summaries = new LinkedHashMap<String, String>();
+    for(Operation operation : Operation.values()) {
+      summaries.put(operation.name(), getLatency(operation).summary(1000));
+    }
+    return summaries;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalArgumentException if operation is not the name of an Operation or percentile
+   *                                  is out of range
+   */
+  @Override
+  public double getLatencyPercentile(String operation, double percentile) {
+    return getLatency(Operation.valueOf(operation)).getValueAtPercentile(percentile) / 1000.0;
+  }
+
+  @Override
+  public long getPromotedCount() {
+    return promoted.sum();
+  }
+
+  @Override
+  public long getMaxWaitlistDepth() {
+    return waitlistDepth.getMax();
+  }
+
+  @Override
+  public void reset() {
+    for(LongAdder outcome : outcomes) {
+      outcome.reset();
+    }
+    for(LatencyHistogram[] stripes : latencies) {
+      for(LatencyHistogram stripe : stripes) {
+        stripe.reset();
+      }
+    }
+    promoted.reset();
+    waitlistDepth.reset();
+  }
+
+  /**
+   * Returns every metric in the following format, listing only the outcomes returned at least
+   * once: <BR>
+   * enrollment metrics (latency in microseconds):<BR>
+   *   ENROLL    count=N mean=X p50=X p99=X p999=X max=X<BR>
+   *   ... one line per operation<BR>
+   *   outcomes  ENROLLED=N COURSE_FULL=N ...<BR>
+   *   promoted  N<BR>
+   *   waitlist depth  count=N mean=X p50=X p99=X p999=X max=X
+   *
+   * @return the metrics
+   */
+  @Override
+  public String dump() {
+    StringBuilder out = new StringBuilder();
+    try {
+      appendTo(out);
+    }
+    catch(IOException e) {
+      // a StringBuilder never throws
+    }
+    return out.toString();
+  }
+
+  /**
+   * Appends every metric to out, in the format described in dump()
+   *
+   * @param out where to append the metrics
+   * @throws IOException if out could not be written to
+   */
+  public void appendTo(Appendable out) throws IOException {
+    out.append("enrollment metrics (latency in microseconds):\n");
+    for(Operation operation : Operation.values()) {
+      out.append(String.format("  %-9s %s\n", operation, getLatency(operation).summary(1000)));
+    }
+    out.append("  outcomes ");
+    for(EnrollmentOutcome outcome : EnrollmentOutcome.values()) {
+      long n = getOutcomeCount(outcome);
+      if(n > 0) {
+        out.append(' ').append(outcome.name()).append('=').append(Long.toString(n));
+      }
+    }
+    out.append("\n  promoted  ").append(Long.toString(getPromotedCount()));
+    out.append("\n  waitlist depth  ").append(waitlistDepth.summary(1)).append('\n');
+  }
+
+  /**
+   * Registers these metrics with the platform MBean server under OBJECT_NAME, so that they can be
+   * read with jconsole or any JMX client. Registering them again has no effect.
+   *
+   * @throws IllegalStateException with message "The metrics could not be registered!" if the MBean
+   *                               server refused them
+   */
+  public void registerMBean() {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+    catch(InstanceAlreadyExistsException e) {
+      // already registered
+    }
+    catch(JMException e) {
+      throw new IllegalStateException("The metrics could not be registered!", e);
+    }
+  }
+
+  /**
+   * Appends the metrics to out every period, from a daemon thread, until stopDump() is called.
+   * Replaces any dump already running.
+   *
+   * @param out           where to append the metrics, for example System.err
+   * @param periodSeconds the number of seconds between two dumps
+   * @throws IllegalArgumentException with message "Dump period must be greater than zero!" if
+   *                                  periodSeconds is not larger than zero
+   */
+  public synchronized void startDump(Appendable out, long periodSeconds) {
+    if(periodSeconds <= 0) {
+      throw new IllegalArgumentException("Dump period must be greater than zero!");
+    }
+    stopDump();
+    dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+      Thread thread = new Thread(task, "enrollment-metrics-dump");
+      thread.setDaemon(true);
+      return thread;
+    });
+    dumper.scheduleAtFixedRate(() -> {
+      try {
+        synchronized(out) {
+          appendTo(out);
+        }
+      }
+      catch(IOException e) {
+        // try again at the next period
+      }
+    }, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Stops the periodic dump started by startDump(), if any
+   */
+  public synchronized void stopDump() {
+    if(dumper != null) {
+      dumper.shutdownNow();
+      dumper = null;
+    }
+  }
+}
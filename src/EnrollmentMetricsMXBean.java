@@ -0,0 +1,94 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentMetricsMXBean interface is the management interface through which
+//        EnrollmentMetrics is exposed over JMX, for example to jconsole or a monitoring agent.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://docs.oracle.com/javase/8/docs/api/javax/management/MXBean.html
+//                 -Referenced for the types an MXBean may expose
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Map;
+
+/**
+ * Every attribute is computed when it is read. Latencies are reported in microseconds.
+ */
+public interface EnrollmentMetricsMXBean {
+  /**
+   * Checks if metrics are being recorded
+   *
+   * @return true if metrics are recorded
+   */
+  boolean isEnabled();
+
+  /**
+   * Starts or stops recording metrics. Values recorded so far are kept.
+   *
+   * @param enabled true to record metrics, false to stop
+   */
+  void setEnabled(boolean enabled);
+
+  /**
+   * Returns the number of times each outcome was returned by an instrumented call
+   *
+   * @return the count of every outcome, keyed by its name
+   */
+  Map<String, Long> getOutcomeCounts();
+
+  /**
+   * Returns the number of calls made to each instrumented operation
+   *
+   * @return the count of every operation, keyed by its name
+   */
+  Map<String, Long> getOperationCounts();
+
+  /**
+   * Returns a one line latency summary of each instrumented operation
+   *
+   * @return the summary of every operation, keyed by its name
+   */
+  Map<String, String> getLatencySummaries();
+
+  /**
+   * Returns a latency percentile of one instrumented operation
+   *
+   * @param operation  the name of the operation, for example "ENROLL"
+   * @param percentile the percentage, between 0 and 100
+   * @return the latency in microseconds
+   */
+  double getLatencyPercentile(String operation, double percentile);
+
+  /**
+   * Returns the number of students moved from a waitlist into a roster
+   *
+   * @return the number of promoted students
+   */
+  long getPromotedCount();
+
+  /**
+   * Returns the largest waitlist size seen right after a student joined a waitlist
+   *
+   * @return the largest waitlist depth
+   */
+  long getMaxWaitlistDepth();
+
+  /**
+   * Returns every metric as text, in the format of the periodic dump
+   *
+   * @return the metrics
+   */
+  String dump();
+
+  /**
+   * Forgets every value recorded so far
+   */
+  void reset();
+}
@@ -0,0 +1,55 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The EnrollmentOutcome enum lists what can happen to one request made to an
+//        ExceptionalCourseEnrollment, such as enrolling, waitlisting or dropping a student.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+public enum EnrollmentOutcome {
+  /** The student was enrolled in the course */
+  ENROLLED,
+  /** The student was added to the waitlist */
+  WAITLISTED,
+  /** The student was already enrolled in the course */
+  ALREADY_ENROLLED,
+  /** The student was already on the waitlist */
+  ALREADY_WAITLISTED,
+  /** The same student appeared earlier in the same batch */
+  DUPLICATE_IN_BATCH,
+  /** The student has not satisfied the prerequisites of the course */
+  PREREQUISITES_NOT_SATISFIED,
+  /** The roster is full */
+  COURSE_FULL,
+  /** The waitlist is full */
+  WAITLIST_FULL,
+  /** The student record was null */
+  INVALID_STUDENT,
+  /** The student was dropped from the course */
+  DROPPED,
+  /** The student to drop is not enrolled in the course */
+  NOT_ENROLLED,
+  /** The enrollment capacity was expanded */
+  CAPACITY_EXPANDED,
+  /** The capacity increase was not larger than zero */
+  INVALID_INCREASE;
+
+  /**
+   * Checks if this outcome means that the course enrollment was changed
+   *
+   * @return true if the student was enrolled, waitlisted or dropped or the capacity was expanded,
+   *         false if the request was rejected
+   */
+  public boolean isSuccess() {
+    return this == ENROLLED || this == WAITLISTED || this == DROPPED || this == CAPACITY_EXPANDED;
+  }
+}
@@ -16,28 +16,143 @@
 // Persons: NONE
 // Online Sources: https://docs.oracle.com/javase/8/docs/api/java/io/PrintWriter.html 
 //                 -Referenced when creating saveRoster() method
+//                 https://docs.oracle.com/javase/8/docs/api/java/nio/file/Files.html
+//                 -Referenced for the atomic move used by saveRoster()
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.zip.DataFormatException;
 import java.util.Scanner;
 
 public class ExceptionalCourseEnrollment {
+  /** Size in chars of the buffer used when writing files */
+  private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+  /** Size in chars of the buffer used when reading files */
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  /** Headers of the lines of a course state file, see saveCourseState() */
+  private static final String COURSE_HEADER = "course: ";
+  private static final String CAPACITY_HEADER = "capacity: ";
+  private static final String ROSTER_HEADER = "roster: ";
+  private static final String WAITLIST_HEADER = "waitlist: ";
+  private static final String LOG_HEADER = "log: ";
+
   /** Course name */
   private String courseName;
-  /** Arraylist storing the records of students enrolled in this course */
-  private ArrayList<StudentRecord> roster;
+  /**
+   * Records of students enrolled in this course, keyed by campusID. An IndexedRoster keeps the
+   * insertion order for printing while making contains/remove constant time, without boxing the
+   * campusIDs.
+   */
+  private IndexedRoster roster;
   /** enrollment capacity of this course enrollment */
-  private int enrollmentCapacity;
-  /** Arraylist storing records of students in the waitlist (not yet enrolled in the course) */
-  private ArrayList<StudentRecord> waitlist;
+  private volatile int enrollmentCapacity;
+  /**
+   * Records of students in the waitlist (not yet enrolled in the course), in a heap ordered by the
+   * waitlist policy and indexed by campusID
+   */
+  private IndexedWaitlist waitlist;
   /** waitlist capacity */
   private int waitlistCapacity;
+  /** write-ahead log receiving every change to this course enrollment, null if not logged */
+  private volatile EnrollmentLog log;
+  /**
+   * sequence number in log of the last change made under the current hold of the write lock, 0 if
+   * none; only used under the write lock
+   */
+  private long logged;
+
+  /**
+   * Guards the roster and waitlist. Every change holds the write lock for the whole check-then-act
+   * sequence, so concurrent enrollers can never overfill the course; readers that walk the lists
+   * hold the read lock.
+   */
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  /** Sizes of the roster and waitlist, published so that the isFull checks never take the lock */
+  private volatile int rosterSize;
+  private volatile int waitlistSize;
+  /** listeners told about every change, through the shared event dispatcher */
+  private final CopyOnWriteArrayList<EnrollmentListener> listeners =
+      new CopyOnWriteArrayList<EnrollmentListener>();
+  /** index told synchronously about every change, null if the course is in no catalog */
+  private EnrollmentHook hook;
+  /** number of changes made to this course enrollment, only written under the write lock */
+  private volatile long version;
+  /** version of the last change to the roster, and to the waitlist, only written under the lock */
+  private volatile long rosterChanged;
+  private volatile long waitlistChanged;
+  /**
+   * cached read-only copies of the roster and waitlist, only rebuilt after a change to that list:
+   * a view taken at a version not older than rosterChanged (or waitlistChanged) is still valid
+   */
+  private volatile View rosterView;
+  private volatile View waitlistView;
+
+  /**
+   * A read-only copy of the roster or waitlist, tagged with the version it was taken at
+   */
+  private static class View {
+    private final long version;
+    private final List<StudentRecord> students;
+
+    private View(long version, List<StudentRecord> students) {
+      this.version = version;
+      this.students = students;
+    }
+  }
+
+  /**
+   * Everything saved about a course enrollment, taken by captureState() under a single acquisition
+   * of the read lock so that the capacities, roster, waitlist and log position all describe the
+   * same moment. It is the counterpart of restore().
+   */
+  static class SavedState {
+    final String courseName;
+    final int enrollmentCapacity;
+    final int waitlistCapacity;
+    /** read-only, possibly the lists returned by rosterView() and waitlistView() */
+    final List<StudentRecord> roster;
+    final List<StudentRecord> waitlist;
+    /** generation of the attached log, -1 if the course was not logged */
+    final long logGeneration;
+    /** number of changes of that generation of the log already included in this state */
+    final long logEntries;
+
+    private SavedState(String courseName, int enrollmentCapacity, int waitlistCapacity,
+        List<StudentRecord> roster, List<StudentRecord> waitlist, long logGeneration,
+        long logEntries) {
+      this.courseName = courseName;
+      this.enrollmentCapacity = enrollmentCapacity;
+      this.waitlistCapacity = waitlistCapacity;
+      this.roster = roster;
+      this.waitlist = waitlist;
+      this.logGeneration = logGeneration;
+      this.logEntries = logEntries;
+    }
+  }
 
 
   /**
@@ -59,10 +174,6 @@ public class ExceptionalCourseEnrollment {
    */
   public ExceptionalCourseEnrollment(String courseName, int enrollmentCapacity,
       int waitlistCapacity) {
-    // initialize the array lists for roster and waitlist
-    roster = new ArrayList<StudentRecord>();
-    waitlist = new ArrayList<StudentRecord>();
-    
 	// Setting the courseName 
     this.courseName = courseName;
     if(courseName == null || courseName.isBlank()) {
@@ -80,31 +191,91 @@ public class ExceptionalCourseEnrollment {
     if(waitlistCapacity <= 0 || waitlistCapacity > enrollmentCapacity) {
       throw new IllegalArgumentException("Waitlist capacity must be between 0 and enrollment capacity!");
     }
+
+    // initialize the roster and waitlist only once the capacities are known to be valid; both
+    // start small and grow with the students actually added
+    roster = new IndexedRoster();
+    waitlist = new IndexedWaitlist();
+  }
+
+  /**
+   * Constructor used to restore a saved course enrollment. Skips the validation of the public
+   * constructor, since a saved enrollment capacity may have been expanded past 250, and sizes the
+   * roster and waitlist for the number of students that are about to be added.
+   * 
+   * @param courseName         the name of the course
+   * @param enrollmentCapacity the capacity of the course roster
+   * @param waitlistCapacity   the capacity of the waitlist
+   * @param rosterSize         the number of students that will be restored in the roster
+   * @param waitlistSize       the number of students that will be restored in the waitlist
+   */
+  private ExceptionalCourseEnrollment(String courseName, int enrollmentCapacity,
+      int waitlistCapacity, int rosterSize, int waitlistSize) {
+    this.courseName = courseName;
+    this.enrollmentCapacity = enrollmentCapacity;
+    this.waitlistCapacity = waitlistCapacity;
+    // sized so that the maps never rehash while the students are restored
+    roster = new IndexedRoster(rosterSize);
+    waitlist = new IndexedWaitlist(waitlistSize);
+  }
+
+  /**
+   * Recreates a course enrollment from its saved state in one pass. The students are put directly
+   * in the roster and waitlist, in the given order, without the per-student checks and messages of
+   * enrollOneStudent() and addWaitlist().
+   * 
+   * @param courseName         the name of the course
+   * @param enrollmentCapacity the saved capacity of the course roster
+   * @param waitlistCapacity   the saved capacity of the waitlist
+   * @param roster             the students enrolled in the course, in roster order
+   * @param waitlist           the students in the waitlist, in waitlist order
+   * @return the restored course enrollment
+   * @throws IllegalArgumentException with message "Saved course state is not valid!" if the name is
+   *                                  blank, a capacity is not positive, a list exceeds its
+   *                                  capacity or a student appears more than once
+   */
+  static ExceptionalCourseEnrollment restore(String courseName, int enrollmentCapacity,
+      int waitlistCapacity, Collection<StudentRecord> roster,
+      Collection<StudentRecord> waitlist) {
+    if(courseName == null || courseName.isBlank() || enrollmentCapacity < 0
+        || waitlistCapacity <= 0 || roster.size() > enrollmentCapacity
+        || waitlist.size() > waitlistCapacity) {
+      throw new IllegalArgumentException("Saved course state is not valid!");
+    }
+    ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment(courseName,
+        enrollmentCapacity, waitlistCapacity, roster.size(), waitlist.size());
+    for(StudentRecord student : roster) {
+      if(course.roster.put(student) != null) {
+        throw new IllegalArgumentException("Saved course state is not valid!");
+      }
+    }
+    for(StudentRecord student : waitlist) {
+      if(course.roster.contains(key(student)) || !course.waitlist.add(student)) {
+        throw new IllegalArgumentException("Saved course state is not valid!");
+      }
+    }
+    course.rosterSize = course.roster.size();
+    course.waitlistSize = course.waitlist.size();
+    return course;
   }
     
 
   /**
-   * Checks if the roster is full.
+   * Checks if the roster is full. Never blocks, even while another thread changes the course.
    *
    * @return true if the size of the roster is equal to the enrollment capacity, false otherwise.
    */
   public boolean isRosterFull() {
-    if(roster != null) {
-      return roster.size() == enrollmentCapacity;
-    }
-    return false;
+    return rosterSize >= enrollmentCapacity;
   }
 
   /**
-   * Checks if the waitlist is full.
+   * Checks if the waitlist is full. Never blocks, even while another thread changes the course.
    *
    * @return true if the size of the waitlist is equal to the waitlist capacity, false otherwise.
    */
   public boolean isWaitlistFull() {
-    if(waitlist != null) {
-      return waitlist.size() == waitlistCapacity;
-    }
-    return false;
+    return waitlistSize >= waitlistCapacity;
   }
 
   /**
@@ -126,6 +297,62 @@ public class ExceptionalCourseEnrollment {
 	  return courseName;
   }
 
+  /**
+   * Getter for the enrollment capacity
+   * 
+   * @return the maximum number of students in the roster
+   */
+  public int getEnrollmentCapacity() {
+    return enrollmentCapacity;
+  }
+
+  /**
+   * Getter for the waitlist capacity
+   * 
+   * @return the maximum number of students in the waitlist
+   */
+  public int getWaitlistCapacity() {
+    return waitlistCapacity;
+  }
+
+  /**
+   * Getter for the policy ordering the waitlist
+   * 
+   * @return the waitlist policy, WaitlistPolicy.FIFO unless it was changed
+   */
+  public WaitlistPolicy getWaitlistPolicy() {
+    lock.readLock().lock();
+    try {
+      return waitlist.getPolicy();
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Changes the order in which waitlisted students are promoted, reordering the current waitlist.
+   * Students the policy considers equal keep the order they joined the waitlist in. The policy is
+   * not saved with the course state or the log, so it must be set again after loading a course.
+   * 
+   * @param policy the new waitlist policy
+   * @throws IllegalArgumentException with message "Waitlist policy must not be null!" if policy is
+   *                                  null
+   */
+  public void setWaitlistPolicy(WaitlistPolicy policy) {
+    if(policy == null) {
+      throw new IllegalArgumentException("Waitlist policy must not be null!");
+    }
+    lock.writeLock().lock();
+    try {
+      waitlist.setPolicy(policy);
+      waitlistChanged = ++version; // the waitlist order may have changed
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
   /**
    * Returns a deep copy (NOT the deepest) of this course enrollment's roster
    * 
@@ -135,13 +362,7 @@ public class ExceptionalCourseEnrollment {
 	  if(roster == null) {
 	    return null;
 	  }
-	  ArrayList<StudentRecord> returnList = new ArrayList<StudentRecord>();
-	  for(int i = 0; i < roster.size(); i++) { // Looping through the roster
-	    if(roster.get(i) != null) {
-	      returnList.add(roster.get(i));
-	    }
-	  }
-	  return returnList;
+	  return new ArrayList<StudentRecord>(rosterView());
   }
 
   /**
@@ -153,37 +374,168 @@ public class ExceptionalCourseEnrollment {
     if(waitlist == null) {
       return null;
     }
-    ArrayList<StudentRecord> returnList = new ArrayList<StudentRecord>();
-    for(int i = 0; i < waitlist.size(); i++) { // Looping through waitlist
-      if(waitlist.get(i) != null) {
-        returnList.add(waitlist.get(i));
+    return new ArrayList<StudentRecord>(waitlistView());
+  }
+
+  /**
+   * Returns an immutable view of the roster as it is now, in roster order. The view is copied, in
+   * O(n), after a change to the roster and then shared by every reader until the roster changes
+   * again, so reading an unchanged roster neither copies nor takes a lock. Changes to the waitlist
+   * or the capacity keep the view. Later changes never affect a view already returned.
+   * 
+   * @return a read-only list of the enrolled students
+   */
+  public List<StudentRecord> rosterView() {
+    View view = rosterView;
+    if(view == null || view.version < rosterChanged) {
+      lock.readLock().lock();
+      try {
+        view = rosterSnapshot();
+      }
+      finally {
+        lock.readLock().unlock();
+      }
+    }
+    return view.students;
+  }
+
+  /**
+   * Returns an immutable view of the waitlist as it is now, in waitlist order, shared by readers
+   * like rosterView(). The waitlist is kept as a heap, so building the view sorts it in
+   * O(n log n); this is paid once after each change to the waitlist, not once per read.
+   * 
+   * @return a read-only list of the waitlisted students
+   */
+  public List<StudentRecord> waitlistView() {
+    View view = waitlistView;
+    if(view == null || view.version < waitlistChanged) {
+      lock.readLock().lock();
+      try {
+        view = waitlistSnapshot();
+      }
+      finally {
+        lock.readLock().unlock();
       }
     }
-    return returnList; 
+    return view.students;
+  }
+
+  /**
+   * Returns the cached roster view, rebuilding and caching it if the roster changed since it was
+   * taken. Called with the read or write lock held, so the view cached is never older than one
+   * cached by another reader.
+   * 
+   * @return the current roster view
+   */
+  private View rosterSnapshot() {
+    View view = rosterView;
+    if(view == null || view.version < rosterChanged) {
+      view = new View(version,
+          Collections.unmodifiableList(roster.toList()));
+      rosterView = view;
+    }
+    return view;
+  }
+
+  /**
+   * Returns the cached waitlist view like rosterSnapshot()
+   * 
+   * @return the current waitlist view
+   */
+  private View waitlistSnapshot() {
+    View view = waitlistView;
+    if(view == null || view.version < waitlistChanged) {
+      view = new View(version, Collections.unmodifiableList(waitlist.toList()));
+      waitlistView = view;
+    }
+    return view;
+  }
+
+  /**
+   * Returns the version of this course enrollment, which grows by one with every change to the
+   * roster, waitlist or enrollment capacity. Two equal versions mean nothing changed in between.
+   * 
+   * @return the current version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the position of a student in the waitlist, counting from 1 for the next student to be
+   * promoted. The cost grows with the position returned, not with the size of the waitlist.
+   * 
+   * @param campusID the numeric campusID of the student
+   * @return the position of the student, or -1 if they are not on the waitlist
+   */
+  public int getWaitlistPosition(long campusID) {
+    lock.readLock().lock();
+    try {
+      return waitlist.positionOf(campusID);
+    }
+    finally {
+      lock.readLock().unlock();
+    }
   }
 
   /**
    * Expands the enrollment capacity of the course by the increase amount. Does not affect the
-   * waitlist at all.
+   * waitlist at all. Listeners receive a CAPACITY_CHANGED event.
    * 
    * @param increase the non-negative amount to increase the capacity by
    * @throws IllegalArgumentException with message "Increase amount must be greater than zero!" if
    *                                  increase is not larger than zero
    */
   public void expandEnrollmentCapacity(int increase) throws IllegalArgumentException {
-	  try {
-	    // User cannot increase enrollment capacity by a negative or zero amount
-	    if(increase <= 0) {
-	      throw new IllegalArgumentException("Increase amount must be greater than zero!");
-	    }
-	  }
-	  catch(IllegalArgumentException e) {
-	    System.out.println(e.getMessage());
+	  // User cannot increase enrollment capacity by a negative or zero amount
+	  if(tryExpandEnrollmentCapacity(increase) == EnrollmentOutcome.INVALID_INCREASE) {
+	    throw new IllegalArgumentException("Increase amount must be greater than zero!");
 	  }
-	  if(increase > 0) {
-	    enrollmentCapacity += increase;
-	  }
-   
+  }
+
+  /**
+   * Expands the enrollment capacity of the course by the increase amount, without throwing or
+   * printing anything.
+   * 
+   * @param increase the amount to increase the capacity by
+   * @return CAPACITY_EXPANDED, or INVALID_INCREASE if increase is not larger than zero
+   */
+  public EnrollmentOutcome tryExpandEnrollmentCapacity(int increase) {
+    if(increase <= 0) {
+      return EnrollmentOutcome.INVALID_INCREASE;
+    }
+    applyExpand(increase);
+    return EnrollmentOutcome.CAPACITY_EXPANDED;
+  }
+
+  /**
+   * Expands the enrollment capacity of the course by the increase amount and, if asked to, fills
+   * the new seats from the waitlist in one step. Students are promoted in waitlist order until the
+   * roster is full or the waitlist is empty; listeners receive a single PROMOTED event listing all
+   * of them.
+   * 
+   * @param increase the amount to increase the capacity by
+   * @param promote  true to move waitlisted students into the new seats, false to only expand the
+   *                 capacity like expandEnrollmentCapacity(int)
+   * @return the promoted students in the order they were promoted, empty if nobody was promoted;
+   *         the list belongs to the caller and changing it does not affect the PROMOTED event
+   * @throws IllegalArgumentException with message "Increase amount must be greater than zero!" if
+   *                                  increase is not larger than zero
+   */
+  public List<StudentRecord> expandEnrollmentCapacity(int increase, boolean promote) {
+    if(increase <= 0) {
+      throw new IllegalArgumentException("Increase amount must be greater than zero!");
+    }
+    if(!promote) {
+      applyExpand(increase);
+      return new ArrayList<StudentRecord>();
+    }
+    List<StudentRecord> promoted = applyExpandAndPromote(increase);
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    if(metrics != null) {
+      metrics.recordPromoted(promoted.size());
+    }
+    return promoted;
   }
 
 
@@ -207,17 +559,36 @@ public class ExceptionalCourseEnrollment {
    * by "The waitlist is empty." on a newline.
    */
   public void printWaitlist() {
+    StringBuilder out = new StringBuilder();
+    try {
+      appendWaitlistTo(out);
+    }
+    catch(IOException e) {
+      // a StringBuilder never throws
+    }
+    System.out.print(out);
+  }
+
+  /**
+   * Writes the text printed by printWaitlist() to out, in one pass over the waitlist and without
+   * building a string per student
+   * 
+   * @param out where to write the waitlist
+   * @throws IOException if out could not be written to
+   */
+  public void appendWaitlistTo(Appendable out) throws IOException {
+    List<StudentRecord> waitlist = waitlistView();
 
-    System.out.println("Waitlist capacity: " + this.waitlistCapacity);
-    if (this.waitlist.isEmpty()) {
-      System.out.println("The waitlist is empty.");
+    out.append("Waitlist capacity: ").append(Integer.toString(this.waitlistCapacity)).append('\n');
+    if (waitlist.isEmpty()) {
+      out.append("The waitlist is empty.\n");
     } else {
-      for (int i = 0; i < this.waitlist.size(); i++) {
-        String waitlistString = (i + 1) + ". " + this.waitlist.get(i) + "\n";
-        System.out.println(waitlistString);
+      for (int i = 0; i < waitlist.size(); i++) {
+        out.append(Integer.toString(i + 1)).append(". ");
+        waitlist.get(i).appendTo(out);
+        out.append("\n\n"); // each entry is followed by a blank line, as it always was
       }
     }
-
   }
 
 
@@ -233,14 +604,79 @@ public class ExceptionalCourseEnrollment {
    * 
    */
   public static StudentRecord searchById(String campusID, ArrayList<StudentRecord> list) {
-	for(int i = 0; i < list.size(); i++) { // Looping through inputed list
-      if(list.get(i).getCampusID() == campusID) {
-  	    return list.get(i);
-  	  }
-  	}
+    // Compare the numeric campusIDs so that IDs parsed from input match the stored ones
+    long id = campusID == null ? -1 : StudentRecord.parseCampusID(campusID);
+    if(id >= 0) {
+      for(int i = 0; i < list.size(); i++) { // Looping through inputed list
+        if(list.get(i).getCampusIDValue() == id) {
+          return list.get(i);
+        }
+      }
+    }
 	throw new NoSuchElementException("No student record found!"); // thrown if no campudID is found
   }
 
+  /**
+   * Returns the student record enrolled in this course whose campusID matches the input. Uses the
+   * roster index, so the lookup takes constant time whatever the size of the roster.
+   * 
+   * @param campusID a string representing the campusID of a student.
+   * @return StudentRecord record in the roster with the same campusID
+   * @throws NoSuchElementException with message "No student record found!" if no match found in the
+   *                                roster or if campusID is NOT valid.
+   */
+  public StudentRecord searchById(String campusID) {
+    return searchById(campusID == null ? -1 : StudentRecord.parseCampusID(campusID));
+  }
+
+  /**
+   * Returns the student record enrolled in this course whose campusID matches an already parsed
+   * campusID, in constant time.
+   * 
+   * @param campusID the numeric campusID of a student
+   * @return StudentRecord record in the roster with the same campusID
+   * @throws NoSuchElementException with message "No student record found!" if no match found in the
+   *                                roster or if campusID is negative.
+   */
+  public StudentRecord searchById(long campusID) {
+    StudentRecord student = null;
+    if(campusID >= 0) {
+      lock.readLock().lock();
+      try {
+        student = roster.get(campusID);
+      }
+      finally {
+        lock.readLock().unlock();
+      }
+    }
+    if(student == null) {
+      throw new NoSuchElementException("No student record found!");
+    }
+    return student;
+  }
+
+  /**
+   * Looks up many campusIDs in the roster of this course in one call.
+   * 
+   * @param campusIDs the campusIDs to look up
+   * @return a list with one entry per campusID, in the same order, holding the matching enrolled
+   *         StudentRecord or null if no student in the roster has that campusID or it is NOT valid
+   */
+  public ArrayList<StudentRecord> searchById(Collection<String> campusIDs) {
+    ArrayList<StudentRecord> results = new ArrayList<StudentRecord>(campusIDs.size());
+    lock.readLock().lock();
+    try {
+      for(String campusID : campusIDs) {
+        long id = campusID == null ? -1 : StudentRecord.parseCampusID(campusID);
+        results.add(id < 0 ? null : roster.get(id));
+      }
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+    return results;
+  }
+
   /**
    * Appends (adds to the end) the student record to the waitlist if the waitlist has space, the
    * student isn't already on the waitlist, isn't already enrolled in the course, and they meet the
@@ -260,19 +696,76 @@ public class ExceptionalCourseEnrollment {
    *                                  course!"
    */
   public void addWaitlist(StudentRecord student) {
-    if(waitlist.contains(student)) {
-      throw new IllegalArgumentException("That student is already on the waitlist!");
+    switch(tryAddWaitlist(student)) {
+      case ALREADY_WAITLISTED:
+        throw new IllegalArgumentException("That student is already on the waitlist!");
+      case ALREADY_ENROLLED:
+        throw new IllegalArgumentException("That student is already enrolled!");
+      case WAITLIST_FULL:
+        throw new IllegalStateException("The waitlist is full!");
+      case PREREQUISITES_NOT_SATISFIED:
+        throw new IllegalStateException("The prerequisites are not satisfied for that course!");
+      case INVALID_STUDENT:
+        throw new IllegalArgumentException("The student record must not be null!");
+      default: // WAITLISTED
+    }
+  }
+
+  /**
+   * Appends the student record to the waitlist under the same conditions as addWaitlist(), but
+   * reports the result instead of throwing an exception, so that rejections cost no more than a
+   * successful call.
+   * 
+   * @param student StudentRecord of the student to be added
+   * @return WAITLISTED if the student was added, otherwise the reason they were rejected:
+   *         ALREADY_WAITLISTED, ALREADY_ENROLLED, WAITLIST_FULL, PREREQUISITES_NOT_SATISFIED or
+   *         INVALID_STUDENT if student is null
+   */
+  public EnrollmentOutcome tryAddWaitlist(StudentRecord student) {
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    EnrollmentOutcome outcome = EnrollmentOutcome.INVALID_STUDENT;
+    if(student != null) {
+      long key = key(student);
+      lock.writeLock().lock();
+      try {
+        outcome = waitlistLocked(student, key);
+      }
+      finally {
+        unlockWrite();
+      }
+    }
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.WAITLIST, outcome, start);
+      if(outcome == EnrollmentOutcome.WAITLISTED) {
+        metrics.recordWaitlistDepth(waitlistSize);
+      }
+    }
+    return outcome;
+  }
+
+  /**
+   * Checks and adds a student to the waitlist. The caller holds the write lock.
+   * 
+   * @param student the student to add to the waitlist
+   * @param key     the key of the student
+   * @return the outcome described in tryAddWaitlist()
+   */
+  private EnrollmentOutcome waitlistLocked(StudentRecord student, long key) {
+    if(waitlist.contains(key)) {
+      return EnrollmentOutcome.ALREADY_WAITLISTED;
     }
-    if(roster.contains(student)) {
-      throw new IllegalArgumentException("That student is already enrolled!");
+    if(roster.contains(key)) {
+      return EnrollmentOutcome.ALREADY_ENROLLED;
     }
     if(isWaitlistFull()) {
-      throw new IllegalStateException("The waitlist is full!");
+      return EnrollmentOutcome.WAITLIST_FULL;
     }
     if(!student.isPrerequisiteSatisfied()) {
-      throw new IllegalStateException("The prerequisites are not satisfied for that course!");
+      return EnrollmentOutcome.PREREQUISITES_NOT_SATISFIED;
     }
-    waitlist.add(student);
+    applyWaitlist(student);
+    return EnrollmentOutcome.WAITLISTED;
   }
 
 
@@ -282,8 +775,8 @@ public class ExceptionalCourseEnrollment {
    * - student is not already enrolled in the course <br>
    * - the course has space <br>
    * - the student has satisfied the prerequisities<br>
-   * Prints student.getName() + " was successfully enrolled in this class." if the enrollment was
-   * successful. <br>
+   * Listeners receive an ENROLLED event if the enrollment was successful; nothing is printed unless
+   * a ConsoleEnrollmentListener was added. <br>
    * Removes the student from the waitlist if they were on it.<br>
    * 
    * @param student StudentRecord for the student to add
@@ -296,25 +789,166 @@ public class ExceptionalCourseEnrollment {
    *                               if student does not have the appropriate prerequisities
    */
   public void enrollOneStudent(StudentRecord student) {
-    if(roster != null && student != null && roster.contains(student)) {
-      throw new IllegalStateException("That student is already enrolled!");
+    switch(tryEnroll(student)) {
+      case ALREADY_ENROLLED:
+        throw new IllegalStateException("That student is already enrolled!");
+      case COURSE_FULL:
+        throw new IllegalStateException("The course is full.");
+      case PREREQUISITES_NOT_SATISFIED:
+        throw new IllegalStateException("That student has not satisfied the prerequisites!");
+      case INVALID_STUDENT:
+        throw new IllegalArgumentException("The student record must not be null!");
+      default: // ENROLLED
+    }
+  }
+
+  /**
+   * Enrolls one student under the same conditions as enrollOneStudent(), but reports the result
+   * instead of throwing an exception and prints nothing, so that rejections on a full course cost
+   * no more than a successful call. Removes the student from the waitlist if they were on it.
+   * 
+   * @param student StudentRecord for the student to add
+   * @return ENROLLED if the student was enrolled, otherwise the reason they were rejected:
+   *         ALREADY_ENROLLED, COURSE_FULL, PREREQUISITES_NOT_SATISFIED or INVALID_STUDENT if student
+   *         is null
+   */
+  public EnrollmentOutcome tryEnroll(StudentRecord student) {
+    // read once, so that a call with metrics disabled only costs this volatile read
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    EnrollmentOutcome outcome = EnrollmentOutcome.INVALID_STUDENT;
+    if(student != null) {
+      long key = key(student);
+      // the checks and the enrollment happen under one write lock so that two threads can never
+      // both take the last seat
+      lock.writeLock().lock();
+      try {
+        outcome = enrollLocked(student, key);
+      }
+      finally {
+        unlockWrite();
+      }
+    }
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.ENROLL, outcome, start);
+    }
+    return outcome;
+  }
+
+  /**
+   * Checks and enrolls a student. The caller holds the write lock.
+   * 
+   * @param student the student to enroll
+   * @param key     the key of the student
+   * @return the outcome described in tryEnroll()
+   */
+  private EnrollmentOutcome enrollLocked(StudentRecord student, long key) {
+    if(roster.contains(key)) {
+      return EnrollmentOutcome.ALREADY_ENROLLED;
     }
     if(isRosterFull()) {
-      throw new IllegalStateException("The course is full.");
+      return EnrollmentOutcome.COURSE_FULL;
     }
     if(!student.isPrerequisiteSatisfied()) {
-      throw new IllegalStateException("That student has not satisfied the prerequisites!");
+      return EnrollmentOutcome.PREREQUISITES_NOT_SATISFIED;
     }
-    if(roster != null) {
-      roster.add(student);
+    applyEnroll(student);
+    return EnrollmentOutcome.ENROLLED;
+  }
+
+
+
+  /**
+   * Enrolls a batch of students in one step. The whole batch is checked against the current state
+   * of the course under a single acquisition of the lock, and nothing is printed. Going through the
+   * students in order, each one is: <br>
+   * - rejected if they appeared earlier in the batch <br>
+   * - enrolled as tryEnroll() would (and removed from the waitlist if they were on it) <br>
+   * - if the roster is full, added to the waitlist as tryAddWaitlist() would
+   * 
+   * @param students the students to enroll, in order of priority
+   * @return the outcome for each student, in the iteration order of students
+   */
+  public EnrollmentOutcome[] enrollAll(Collection<StudentRecord> students) {
+    EnrollmentOutcome[] outcomes = new EnrollmentOutcome[students.size()];
+    CampusIDIndex seen = new CampusIDIndex(students.size()); // campusID -> index in the batch
+    int i = 0;
+    lock.writeLock().lock();
+    try {
+      for(StudentRecord student : students) {
+        EnrollmentOutcome outcome;
+        long key = student == null ? -1 : key(student);
+        if(student == null) {
+          outcome = EnrollmentOutcome.INVALID_STUDENT;
+        }
+        else if(seen.put(key, i) != CampusIDIndex.ABSENT) {
+          outcome = EnrollmentOutcome.DUPLICATE_IN_BATCH;
+        }
+        else {
+          outcome = enrollLocked(student, key);
+          if(outcome == EnrollmentOutcome.COURSE_FULL) { // spill into the waitlist
+            outcome = waitlistLocked(student, key);
+          }
+        }
+        outcomes[i++] = outcome;
+      }
     }
-    if(waitlist != null && waitlist.contains(student)) {
-      waitlist.remove(student);
+    finally {
+      unlockWrite();
     }
-    System.out.println(student.getName() + " was successfully enrolled in this class.");
+    countAll(outcomes);
+    return outcomes;
   }
 
+  /**
+   * Adds a batch of students to the waitlist in one step, under a single acquisition of the lock and
+   * without printing anything. Each student is checked in order like addWaitlist() does, and is
+   * also rejected if they appeared earlier in the batch.
+   * 
+   * @param students the students to add to the waitlist, in waitlist order
+   * @return the outcome for each student, in the iteration order of students
+   */
+  public EnrollmentOutcome[] waitlistAll(Collection<StudentRecord> students) {
+    EnrollmentOutcome[] outcomes = new EnrollmentOutcome[students.size()];
+    CampusIDIndex seen = new CampusIDIndex(students.size()); // campusID -> index in the batch
+    int i = 0;
+    lock.writeLock().lock();
+    try {
+      for(StudentRecord student : students) {
+        EnrollmentOutcome outcome;
+        long key = student == null ? -1 : key(student);
+        if(student == null) {
+          outcome = EnrollmentOutcome.INVALID_STUDENT;
+        }
+        else if(seen.put(key, i) != CampusIDIndex.ABSENT) {
+          outcome = EnrollmentOutcome.DUPLICATE_IN_BATCH;
+        }
+        else {
+          outcome = waitlistLocked(student, key);
+        }
+        outcomes[i++] = outcome;
+      }
+    }
+    finally {
+      unlockWrite();
+    }
+    countAll(outcomes);
+    return outcomes;
+  }
 
+  /**
+   * Counts the outcomes of a batch in the metrics, if they are enabled
+   * 
+   * @param outcomes the outcome for each student of the batch
+   */
+  private static void countAll(EnrollmentOutcome[] outcomes) {
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    if(metrics != null) {
+      for(EnrollmentOutcome outcome : outcomes) {
+        metrics.count(outcome);
+      }
+    }
+  }
 
   /**
    * Removes a student from the roster based on a matching campusID
@@ -325,87 +959,879 @@ public class ExceptionalCourseEnrollment {
    */
   public void dropCourse(StudentRecord student) {
     // Make sure the student exists in the roster
-    if(!roster.contains(student)) {
+    if(tryDrop(student) != EnrollmentOutcome.DROPPED) {
       throw new NoSuchElementException("There is no matching student in the roster!");
     }
-    roster.remove(student);
   }
 
-
-  // PROVIDED Method
   /**
-   * Returns a String representation of this exceptional course enrollment The string should be of
-   * the form: <BR>
-   * Course Name: courseName<BR>
-   * Number of enrolled students: number of enrolled students<BR>
-   * 1. name, email, campusID, preReq <BR>
-   * 2. name, email, campusID, preReq <BR>
-   * ...<BR>
+   * Removes a student from the roster based on a matching campusID, without throwing an exception
    * 
-   * Every entry must be in a newline. Each of the students records is printed in the format:
-   * "order. name, email, campusID, preReq"
-   * 
-   * where order represents index+1 of the student records in roster (orders are in the range
-   * 1..size and NOT in the range 0..size-1), name, email, and campusID represent the name, email
-   * address, and campusID of the enrolled student.
-   * 
-   * @return a String representation of this exceptional course enrollment
+   * @param student the student's StudentRecord
+   * @return DROPPED if the student was removed, NOT_ENROLLED if they are not in the roster or
+   *         INVALID_STUDENT if student is null
    */
-//TODO Uncomment the below methods out after declaring the data fields
-  @Override
-  public String toString() {
-    // Provided to students
-    String rosterString = "";
-    rosterString = rosterString + "Course Name: " + this.courseName + "\n";
-    rosterString = rosterString + "Number of enrolled students: " + this.roster.size() + "\n";
-    for (int i = 0; i < this.roster.size(); i++) {
-      String studentString = this.roster.get(i).toString();
-      rosterString = rosterString + (i + 1) + ". " + studentString + "\n";
+  public EnrollmentOutcome tryDrop(StudentRecord student) {
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    EnrollmentOutcome outcome = EnrollmentOutcome.INVALID_STUDENT;
+    if(student != null) {
+      outcome = applyDrop(student.getCampusIDValue()) ? EnrollmentOutcome.DROPPED
+          : EnrollmentOutcome.NOT_ENROLLED;
+    }
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.DROP, outcome, start);
     }
-    return rosterString.trim();
+    return outcome;
   }
 
-  //PROVIDED METHOD
   /**
-   * Returns a string of the roster of the course, with the string representation of each
+   * Removes a student from the roster and, in the same step, enrolls the student at the head of the
+   * waitlist in the freed seat. No other change to this course can happen in between, so the seat
+   * can never be taken by someone else or left empty while students are waiting. Only this course is
+   * locked, so drops and promotions in different courses run in parallel.
+   * 
+   * @param student the student's StudentRecord
+   * @return the StudentRecord of the promoted student, or null if nobody was promoted because the
+   *         waitlist is empty or the roster is still full
+   * @throws NoSuchElementException with message "There is no matching student in the roster!" if
+   *                                the student is not in the roster
+   */
+  public StudentRecord dropAndPromote(StudentRecord student) {
+    if(student != null) {
+      lock.writeLock().lock();
+      try {
+        long campusID = student.getCampusIDValue();
+        if(roster.contains(campusID)) {
+          StudentRecord promoted = applyDropAndPromote(campusID);
+          EnrollmentMetrics metrics = EnrollmentMetrics.active();
+          if(metrics != null && promoted != null) {
+            metrics.recordPromoted(1);
+          }
+          return promoted;
+        }
+      }
+      finally {
+        unlockWrite();
+      }
+    }
+    throw new NoSuchElementException("There is no matching student in the roster!");
+  }
+
+  /**
+   * Attaches a write-ahead log to this course enrollment. Every later change made by
+   * enrollOneStudent(), addWaitlist(), dropCourse(), expandEnrollmentCapacity() and
+   * bulkLoadRoster() is appended to it once it has been applied. Once a commit of the log has
+   * failed, every change throws an IllegalStateException with message "The enrollment log could
+   * not be written!" before being made.
+   * 
+   * If the log is synchronous, those methods only return once their change is on disk, and throw
+   * an UncheckedIOException if it could not be written; the change is then made but not durable.
+   * Otherwise they return as soon as the change is made, and a crash may lose the changes of the
+   * last commit interval.
+   * 
+   * @param log the log to append to, or null to stop logging
+   */
+  public void setLog(EnrollmentLog log) {
+    lock.writeLock().lock();
+    try {
+      this.log = log;
+      logged = 0; // sequence numbers of another log mean nothing to this one
+    }
+    finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Getter for the write-ahead log of this course enrollment
+   * 
+   * @return the attached log, or null if changes are not logged
+   */
+  public EnrollmentLog getLog() {
+    return log;
+  }
+
+  /**
+   * Adds a listener that will receive an EnrollmentEvent for every later change to this course
+   * enrollment. Events are delivered asynchronously on the event dispatcher thread, so a slow
+   * listener never delays enrollment.
+   * 
+   * @param listener the listener to add
+   * @throws IllegalArgumentException with message "Listener must not be null!" if listener is null
+   */
+  public void addListener(EnrollmentListener listener) {
+    if(listener == null) {
+      throw new IllegalArgumentException("Listener must not be null!");
+    }
+    listeners.add(listener);
+  }
+
+  /**
+   * Removes a listener added with addListener(). Events already queued may still reach it.
+   * 
+   * @param listener the listener to remove
+   * @return true if the listener had been added
+   */
+  public boolean removeListener(EnrollmentListener listener) {
+    return listeners.remove(listener);
+  }
+
+  /**
+   * Returns the number of events that were dropped, across every course enrollment, because the
+   * listeners could not keep up and the event queue was full
+   * 
+   * @return the number of events dropped so far
+   */
+  public static long getDroppedEventCount() {
+    return EnrollmentEventDispatcher.SHARED.getDropped();
+  }
+
+  /**
+   * Attaches the hook of a catalog to this course enrollment and tells it about every student
+   * already in the roster and waitlist, under the write lock so that no change is missed. The
+   * hook being replaced, if any, is told that every student left.
+   * 
+   * @param hook the hook to attach, or null to detach the current one
+   */
+  void setHook(EnrollmentHook hook) {
+    lock.writeLock().lock();
+    try {
+      // the index does not care about waitlist order, so the waitlist is not sorted
+      EnrollmentHook old = this.hook;
+      if(old != null) {
+        roster.forEach(student -> old.dropped(this, key(student)));
+        waitlist.forEach(student -> old.dropped(this, key(student)));
+      }
+      this.hook = hook;
+      if(hook != null) {
+        roster.forEach(student -> hook.enrolled(this, student));
+        waitlist.forEach(student -> hook.waitlisted(this, student));
+      }
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Queues an event for the listeners of this course enrollment, if it has any. Called with the
+   * write lock held so that the events of one course are queued in the order of the changes.
+   * 
+   * @param type     the kind of change
+   * @param students the students concerned by the change
+   */
+  private void publish(EnrollmentEvent.Type type, List<StudentRecord> students) {
+    if(!listeners.isEmpty()) {
+      EnrollmentEventDispatcher.SHARED.publish(listeners,
+          new EnrollmentEvent(type, courseName, students, enrollmentCapacity));
+    }
+  }
+
+  /**
+   * Releases the write lock. When the outermost hold is released and the log is synchronous, waits
+   * until the changes logged under the lock are on disk. The wait happens after the release, so
+   * that other threads can make changes meanwhile and have them committed by the same force.
+   * 
+   * @throws UncheckedIOException if the changes could not be written to the log
+   */
+  private void unlockWrite() {
+    EnrollmentLog log = this.log;
+    long sequence = 0;
+    if(lock.getWriteHoldCount() == 1) {
+      sequence = logged;
+      logged = 0;
+    }
+    lock.writeLock().unlock();
+    if(sequence > 0 && log.isSynchronous()) {
+      log.awaitDurable(sequence);
+    }
+  }
+
+  /**
+   * Saves the whole state of this course enrollment with saveCourseState(), then empties the
+   * attached log since every change it holds is now in the saved state. Changes wait until the
+   * checkpoint is done; readers are not blocked. The state records how many changes of the log it
+   * already includes, so that a crash between saving the state and emptying the log does not make
+   * EnrollmentLog.recover() apply them twice.
+   * 
+   * @param stateFile the course state file to write
+   * @throws IOException if the state could not be saved or the log could not be emptied
+   */
+  public void saveCheckpoint(File stateFile) throws IOException {
+    lock.readLock().lock();
+    try {
+      saveCourseState(stateFile);
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.truncate();
+      }
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Puts a student in the roster, removing them from the waitlist if they were on it, and logs the
+   * change. The caller is responsible for every check, made under the same write lock.
+   * 
+   * @param student the student to enroll
+   */
+  void applyEnroll(StudentRecord student) {
+    long key = key(student);
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      roster.put(student);
+      rosterChanged = ++version;
+      if(waitlist.remove(key) != null) {
+        waitlistChanged = version;
+      }
+      rosterSize = roster.size();
+      waitlistSize = waitlist.size();
+      if(log != null) {
+        logged = log.logEnroll(student);
+      }
+      if(hook != null) {
+        hook.enrolled(this, student);
+      }
+      publish(EnrollmentEvent.Type.ENROLLED, Collections.singletonList(student));
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Appends a student to the waitlist and logs the change. The caller is responsible for every
+   * check, made under the same write lock.
+   * 
+   * @param student the student to add to the waitlist
+   */
+  void applyWaitlist(StudentRecord student) {
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      waitlist.add(student);
+      waitlistSize = waitlist.size();
+      waitlistChanged = ++version;
+      if(log != null) {
+        logged = log.logWaitlist(student);
+      }
+      if(hook != null) {
+        hook.waitlisted(this, student);
+      }
+      publish(EnrollmentEvent.Type.WAITLISTED, Collections.singletonList(student));
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Removes a student from the roster and logs the change if they were enrolled
+   * 
+   * @param campusID the campusID of the student to drop
+   * @return true if the student was enrolled and has been removed
+   */
+  boolean applyDrop(long campusID) {
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      StudentRecord dropped = roster.remove(campusID);
+      if(dropped == null) {
+        return false;
+      }
+      rosterSize = roster.size();
+      rosterChanged = ++version;
+      if(log != null) {
+        logged = log.logDrop(campusID);
+      }
+      if(hook != null) {
+        hook.dropped(this, campusID);
+      }
+      publish(EnrollmentEvent.Type.DROPPED, Collections.singletonList(dropped));
+      return true;
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Removes a student from the roster, moves the head of the waitlist into the roster if there is
+   * room, and logs both as a single change so that replaying the log never splits them. The caller
+   * checks that the student is enrolled.
+   * 
+   * @param campusID the campusID of the student to drop
+   * @return the promoted student, or null if nobody was promoted
+   */
+  StudentRecord applyDropAndPromote(long campusID) {
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      StudentRecord dropped = roster.remove(campusID);
+      StudentRecord promoted = null;
+      if(!waitlist.isEmpty() && roster.size() < enrollmentCapacity) {
+        promoted = waitlist.poll();
+        roster.put(promoted);
+      }
+      rosterSize = roster.size();
+      waitlistSize = waitlist.size();
+      rosterChanged = ++version;
+      if(promoted != null) {
+        waitlistChanged = version;
+      }
+      if(log != null) {
+        logged = log.logDropAndPromote(campusID);
+      }
+      if(hook != null) {
+        if(dropped != null) {
+          hook.dropped(this, campusID);
+        }
+        if(promoted != null) {
+          hook.enrolled(this, promoted);
+        }
+      }
+      if(dropped != null) {
+        publish(EnrollmentEvent.Type.DROPPED, Collections.singletonList(dropped));
+      }
+      if(promoted != null) {
+        publish(EnrollmentEvent.Type.PROMOTED, Collections.singletonList(promoted));
+      }
+      return promoted;
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Increases the enrollment capacity and logs the change. The caller checks that increase is
+   * positive.
+   * 
+   * @param increase the amount to increase the capacity by
+   */
+  void applyExpand(int increase) {
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      enrollmentCapacity += increase;
+      version++; // the roster and waitlist views stay valid
+      if(log != null) {
+        logged = log.logExpand(increase);
+      }
+      publish(EnrollmentEvent.Type.CAPACITY_CHANGED, Collections.<StudentRecord>emptyList());
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Increases the enrollment capacity, moves the head of the waitlist into the roster until either
+   * is exhausted, and logs both as a single change. The caller checks that increase is positive.
+   * 
+   * @param increase the amount to increase the capacity by
+   * @return the promoted students, in the order they were promoted
+   */
+  List<StudentRecord> applyExpandAndPromote(int increase) {
+    lock.writeLock().lock();
+    try {
+      EnrollmentLog log = this.log;
+      if(log != null) {
+        log.checkWritable(); // a change the log would reject is not made at all
+      }
+      enrollmentCapacity += increase;
+      int seats = Math.min(enrollmentCapacity - roster.size(), waitlist.size());
+      ArrayList<StudentRecord> promoted = new ArrayList<StudentRecord>(Math.max(seats, 0));
+      for(int i = 0; i < seats; i++) {
+        StudentRecord student = waitlist.poll();
+        roster.put(student);
+        promoted.add(student);
+      }
+      rosterSize = roster.size();
+      waitlistSize = waitlist.size();
+      version++;
+      if(!promoted.isEmpty()) {
+        rosterChanged = version;
+        waitlistChanged = version;
+      }
+      if(log != null) {
+        logged = log.logExpandAndPromote(increase);
+      }
+      if(hook != null) {
+        for(StudentRecord student : promoted) {
+          hook.enrolled(this, student);
+        }
+      }
+      publish(EnrollmentEvent.Type.CAPACITY_CHANGED, Collections.<StudentRecord>emptyList());
+      if(!promoted.isEmpty()) {
+        // events are delivered later and do not copy: the caller is free to change promoted
+        publish(EnrollmentEvent.Type.PROMOTED, List.copyOf(promoted));
+      }
+      return promoted;
+    }
+    finally {
+      unlockWrite();
+    }
+  }
+
+  /**
+   * Returns the key used to index a student in the roster and waitlist maps. Two records are
+   * considered the same student when they have the same campusID, matching StudentRecord.equals().
+   * 
+   * @param student the student's StudentRecord
+   * @return the numeric campusID of the student
+   */
+  private static long key(StudentRecord student) {
+    return student.getCampusIDValue();
+  }
+
+
+  // PROVIDED Method
+  /**
+   * Returns a String representation of this exceptional course enrollment The string should be of
+   * the form: <BR>
+   * Course Name: courseName<BR>
+   * Number of enrolled students: number of enrolled students<BR>
+   * 1. name, email, campusID, preReq <BR>
+   * 2. name, email, campusID, preReq <BR>
+   * ...<BR>
+   * 
+   * Every entry must be in a newline. Each of the students records is printed in the format:
+   * "order. name, email, campusID, preReq"
+   * 
+   * where order represents index+1 of the student records in roster (orders are in the range
+   * 1..size and NOT in the range 0..size-1), name, email, and campusID represent the name, email
+   * address, and campusID of the enrolled student.
+   * 
+   * @return a String representation of this exceptional course enrollment
+   */
+//TODO Uncomment the below methods out after declaring the data fields
+  @Override
+  public String toString() {
+    // Provided to students
+    StringBuilder rosterString = new StringBuilder();
+    try {
+      appendTo(rosterString);
+    }
+    catch(IOException e) {
+      // a StringBuilder never throws
+    }
+    return rosterString.toString();
+  }
+
+  /**
+   * Writes the same text as toString() to out, in one pass over the roster and without building a
+   * string per student
+   * 
+   * @param out where to write this exceptional course enrollment
+   * @throws IOException if out could not be written to
+   */
+  public void appendTo(Appendable out) throws IOException {
+    List<StudentRecord> roster = rosterView();
+    out.append("Course Name: ").append(this.courseName).append('\n');
+    out.append("Number of enrolled students: ").append(Integer.toString(roster.size()));
+    for (int i = 0; i < roster.size(); i++) {
+      out.append('\n').append(Integer.toString(i + 1)).append(". ");
+      roster.get(i).appendTo(out);
+    }
+  }
+
+  //PROVIDED METHOD
+  /**
+   * Returns a string of the roster of the course, with the string representation of each
    * StudentRecord stored in the ArrayList roster in a separate line.
    * 
    * @return String representing the roster to the above specifications
    */
   public String rosterToString() {
-    String rosterString = "";
-    for (int i = 0; i < this.roster.size(); i++) { // Looping through roster
-      rosterString += this.roster.get(i) + "\n";
+    StringBuilder rosterString = new StringBuilder();
+    try {
+      appendRosterTo(rosterString);
     }
-    return rosterString.trim();
-
+    catch(IOException e) {
+      // a StringBuilder never throws
+    }
+    return rosterString.toString();
   }
 
   /**
-   * Saves the string representation of the roster to a file passed as input. Does this by calling
-   * the rosterToString() method and writing the string to a file.
+   * Writes the same text as rosterToString() to out: the string representation of each enrolled
+   * student on its own line
    * 
-   * You can use a PrintWriter or a FileWriter to do this.
+   * @param out where to write the roster
+   * @throws IOException if out could not be written to
+   */
+  public void appendRosterTo(Appendable out) throws IOException {
+    boolean first = true;
+    for (StudentRecord student : rosterView()) { // Looping through roster
+      if (!first) {
+        out.append('\n');
+      }
+      student.appendTo(out);
+      first = false;
+    }
+  }
+
+  /**
+   * Saves the string representation of the roster to a file passed as input, one StudentRecord per
+   * line in the same format as rosterToString().
    * 
-   * Catches and prints the message associated with any IOException that might be thrown.
+   * The records are streamed through a buffered writer into a temporary file next to the output
+   * file, which is forced to disk and then moved over the output file. A crash during the save
+   * therefore leaves the previous file untouched instead of a half-written one.
    * 
    * @param file the path of the output file
+   * @throws IOException if the roster could not be written, in which case the output file is left
+   *                     as it was
    */
   public void saveRoster(File file) throws IOException{
-    // Create a printwriter to write the file
-    
-    PrintWriter printwriter = null;
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    Path target = file.toPath().toAbsolutePath();
+    Path temp = createTempSibling(target);
     try {
-      // Make sure the file exists
-      printwriter = new PrintWriter(file);
-      
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        Writer writer = new BufferedWriter(
+            Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1),
+            WRITE_BUFFER_SIZE);
+        // Prints all of the students in the roster to the file to save
+        writeRecords(writer, rosterView());
+        writer.flush();
+        channel.force(true);
+      }
+      replaceAtomically(temp, target);
     }
     catch(IOException e) {
-      System.out.println(e.getMessage());
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.SAVE, start);
+    }
+  }
+
+  /**
+   * Writes the string representation of each student on its own line
+   * 
+   * @param writer   the writer to write to
+   * @param students the students to write, in order
+   * @throws IOException if the students could not be written
+   */
+  private static void writeRecords(Writer writer, Collection<StudentRecord> students)
+      throws IOException {
+    for(StudentRecord student : students) {
+      student.appendTo(writer);
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Writes the escaped string representation of each student on its own line, see
+   * StudentRecord.appendEscapedTo()
+   * 
+   * @param writer   the writer to write to
+   * @param students the students to write, in order
+   * @throws IOException if the students could not be written
+   */
+  private static void writeEscapedRecords(Writer writer, Collection<StudentRecord> students)
+      throws IOException {
+    for(StudentRecord student : students) {
+      student.appendEscapedTo(writer);
+      writer.write('\n');
+    }
+  }
+
+  /**
+   * Saves the whole state of this course enrollment to a text file in one pass: the course name,
+   * both capacities, the roster and the waitlist in order. The file has the following format: <BR>
+   * course: courseName<BR>
+   * capacity: enrollmentCapacity waitlistCapacity<BR>
+   * roster: number of enrolled students<BR>
+   * one escaped string representation of a StudentRecord per line<BR>
+   * waitlist: number of waitlisted students<BR>
+   * one escaped string representation of a StudentRecord per line<BR>
+   * log: generation entries (only if a log is attached)
+   * 
+   * The last line tells EnrollmentLog.recover() that the state already includes the first entries
+   * changes of that generation of the log, which are skipped when the log is replayed on it.
+   * Students are written with StudentRecord.appendEscapedTo(), so that loadCourseState() reads
+   * back a name or email containing ", " or a line break as it was. Like saveRoster(), the file is
+   * written to a temporary file that then replaces the output file.
+   * 
+   * @param file the path of the output file
+   * @throws IOException if the state could not be written, in which case the output file is left as
+   *                     it was
+   */
+  public void saveCourseState(File file) throws IOException {
+    // Capture a consistent state, then write it without holding the lock
+    SavedState state = captureState();
+
+    Path target = file.toPath().toAbsolutePath();
+    Path temp = createTempSibling(target);
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        Writer writer = new BufferedWriter(
+            Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), -1),
+            WRITE_BUFFER_SIZE);
+        writer.write(COURSE_HEADER + state.courseName + "\n");
+        writer.write(CAPACITY_HEADER + state.enrollmentCapacity + " " + state.waitlistCapacity
+            + "\n");
+        writer.write(ROSTER_HEADER + state.roster.size() + "\n");
+        writeEscapedRecords(writer, state.roster);
+        writer.write(WAITLIST_HEADER + state.waitlist.size() + "\n");
+        writeEscapedRecords(writer, state.waitlist);
+        if(state.logGeneration >= 0) {
+          writer.write(LOG_HEADER + state.logGeneration + " " + state.logEntries + "\n");
+        }
+        writer.flush();
+        channel.force(true);
+      }
+      replaceAtomically(temp, target);
+    }
+    catch(IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+  }
+
+  /**
+   * Copies the name, capacities, roster and waitlist of this course enrollment under a single
+   * acquisition of the read lock, so that a save never mixes states from before and after a change
+   * 
+   * @return the captured state
+   */
+  SavedState captureState() {
+    lock.readLock().lock();
+    try {
+      // the log only changes under the write lock, so it is at the same point as the state
+      EnrollmentLog log = this.log;
+      // the cached views are reused when still valid, so saving an unchanged course copies nothing
+      return new SavedState(courseName, enrollmentCapacity, waitlistCapacity,
+          rosterSnapshot().students, waitlistSnapshot().students,
+          log == null ? -1 : log.getGeneration(), log == null ? 0 : log.getEntries());
+    }
+    finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Loads a course enrollment saved with saveCourseState() in one pass. The students are restored
+   * directly in the roster and waitlist in their saved order, without going through
+   * enrollOneStudent() or addWaitlist() and without printing anything.
+   * 
+   * @param file the file to read
+   * @return the restored course enrollment
+   * @throws IOException         if the file could not be read
+   * @throws DataFormatException if the file is not in the format written by saveCourseState()
+   */
+  public static ExceptionalCourseEnrollment loadCourseState(File file)
+      throws IOException, DataFormatException {
+    return restore(readCourseState(file));
+  }
+
+  /**
+   * Recreates a course enrollment from a state read by readCourseState()
+   * 
+   * @param state the saved state
+   * @return the restored course enrollment
+   * @throws DataFormatException if the state is not valid, see restore()
+   */
+  static ExceptionalCourseEnrollment restore(SavedState state) throws DataFormatException {
+    try {
+      return restore(state.courseName, state.enrollmentCapacity, state.waitlistCapacity,
+          state.roster, state.waitlist);
+    }
+    catch(IllegalArgumentException e) {
+      throw new DataFormatException(e.getMessage());
+    }
+  }
+
+  /**
+   * Reads a file written by saveCourseState() without restoring the course enrollment yet, so that
+   * EnrollmentLog.recover() also gets the position of the log the state was saved at
+   * 
+   * @param file the file to read
+   * @return the saved state, with a logGeneration of -1 if no log position was saved
+   * @throws IOException         if the file could not be read
+   * @throws DataFormatException if the file is not in the format written by saveCourseState()
+   */
+  static SavedState readCourseState(File file) throws IOException, DataFormatException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        Files.newInputStream(file.toPath()), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+      String name = readHeader(reader, COURSE_HEADER);
+      String capacities = readHeader(reader, CAPACITY_HEADER);
+      int space = capacities.indexOf(' ');
+      int rosterCapacity = parseCount(space < 0 ? capacities : capacities.substring(0, space));
+      int waitlistCapacity = parseCount(space < 0 ? "" : capacities.substring(space + 1));
+      ArrayList<StudentRecord> rosterRecords =
+          readRecords(reader, parseCount(readHeader(reader, ROSTER_HEADER)));
+      ArrayList<StudentRecord> waitlistRecords =
+          readRecords(reader, parseCount(readHeader(reader, WAITLIST_HEADER)));
+      long logGeneration = -1;
+      long logEntries = 0;
+      String line = reader.readLine();
+      if(line != null && line.startsWith(LOG_HEADER)) { // files saved without a log have none
+        String mark = line.substring(LOG_HEADER.length());
+        int at = mark.indexOf(' ');
+        logGeneration = parseLogNumber(at < 0 ? mark : mark.substring(0, at));
+        logEntries = parseLogNumber(at < 0 ? "" : mark.substring(at + 1));
+      }
+      return new SavedState(name, rosterCapacity, waitlistCapacity, rosterRecords,
+          waitlistRecords, logGeneration, logEntries);
+    }
+  }
+
+  /**
+   * Parses a number of the log line of a course state file
+   * 
+   * @param value the text of the number
+   * @return the number
+   * @throws DataFormatException if value is not a non-negative number
+   */
+  private static long parseLogNumber(String value) throws DataFormatException {
+    try {
+      long number = Long.parseLong(value.trim());
+      if(number >= 0) {
+        return number;
+      }
+    }
+    catch(NumberFormatException e) {
+      // reported below
+    }
+    throw new DataFormatException("Bad number in course state file: " + value);
+  }
+
+  /**
+   * Reads the next line of a course state file, which must start with the given header
+   * 
+   * @param reader the reader of the course state file
+   * @param header the expected header
+   * @return the rest of the line after the header
+   * @throws IOException         if the file could not be read
+   * @throws DataFormatException if the line does not start with the header
+   */
+  private static String readHeader(BufferedReader reader, String header)
+      throws IOException, DataFormatException {
+    String line = reader.readLine();
+    if(line == null || !line.startsWith(header)) {
+      throw new DataFormatException("Expected \"" + header.trim() + "\" in course state file!");
+    }
+    return line.substring(header.length());
+  }
+
+  /**
+   * Parses a count or capacity read from a course state file
+   * 
+   * @param value the text to parse
+   * @return the parsed non-negative number
+   * @throws DataFormatException if value is not a non-negative integer
+   */
+  private static int parseCount(String value) throws DataFormatException {
+    try {
+      int count = Integer.parseInt(value.trim());
+      if(count >= 0) {
+        return count;
+      }
+    }
+    catch(NumberFormatException e) {
+      // reported below
+    }
+    throw new DataFormatException("Bad number in course state file: " + value);
+  }
+
+  /**
+   * Reads the given number of escaped StudentRecord lines from a course state file
+   * 
+   * @param reader the reader of the course state file
+   * @param count  the number of records to read
+   * @return the records read, in order
+   * @throws IOException         if the file could not be read
+   * @throws DataFormatException if a line is missing or is not a valid StudentRecord
+   */
+  private static ArrayList<StudentRecord> readRecords(BufferedReader reader, int count)
+      throws IOException, DataFormatException {
+    ArrayList<StudentRecord> records = new ArrayList<StudentRecord>(count);
+    for(int i = 0; i < count; i++) {
+      String line = reader.readLine();
+      if(line == null) {
+        throw new DataFormatException("Course state file ended early!");
+      }
+      records.add(escapedLineToRecord(line));
+    }
+    return records;
+  }
+
+  /**
+   * Creates an empty temporary file in the same directory as target, so that it can later be
+   * moved over target without copying. The file gets the permissions target already has, or the
+   * default permissions of a new file if target does not exist yet, so that replacing target does
+   * not change who can read it. (Files.createTempFile() would make it readable by its owner only.)
+   * 
+   * @param target the absolute path of the file that will be replaced
+   * @return the path of the new temporary file
+   * @throws IOException if the temporary file could not be created
+   */
+  static Path createTempSibling(Path target) throws IOException {
+    String prefix = target.getFileName().toString() + ".";
+    while(true) {
+      Path temp = target.resolveSibling(
+          prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+      try {
+        Files.createFile(temp);
+      }
+      catch(FileAlreadyExistsException e) {
+        continue; // another save picked the same name, try another one
+      }
+      try {
+        if(Files.exists(target)
+            && target.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+          Files.setPosixFilePermissions(temp, Files.getPosixFilePermissions(target));
+        }
+      }
+      catch(IOException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      return temp;
+    }
+  }
+
+  /**
+   * Moves a fully written temporary file over target. Readers see either the old or the new file,
+   * never a partial one. Falls back to a plain replace on file systems without atomic moves.
+   * 
+   * @param temp   the temporary file created by createTempSibling(target)
+   * @param target the file to replace
+   * @throws IOException if the file could not be moved
+   */
+  static void replaceAtomically(Path temp, Path target) throws IOException {
+    try {
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch(AtomicMoveNotSupportedException e) {
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
     }
-    
-    // Prints all of the students in the roster to a file to save
-    printwriter.println(rosterToString());
   }
 
   /**
@@ -430,14 +1856,181 @@ public class ExceptionalCourseEnrollment {
    *                             formatted if it is not at the above format where name, email,
    *                             campusID, preReqValue are valid and separated by ", ".
    */
-  private StudentRecord lineToRecord(String line) throws DataFormatException {
-    String[] parts = line.trim().split(", ");
-    if(parts.length != 4) { // Makes sure the line is in the valid format
-      throw new DataFormatException();
+  static StudentRecord lineToRecord(String line) throws DataFormatException {
+    // Locate the three ", " separators in a single pass instead of splitting with a regex
+    int nameEnd = line.indexOf(", ");
+    int emailEnd = nameEnd < 0 ? -1 : line.indexOf(", ", nameEnd + 2);
+    int idEnd = emailEnd < 0 ? -1 : line.indexOf(", ", emailEnd + 2);
+    if(idEnd < 0 || line.indexOf(", ", idEnd + 2) >= 0) { // Makes sure there are exactly 4 parts
+      throw new DataFormatException("Bad student record: " + line);
     }
-    
-    // Prints in the format name, email, campusID, preReqSatisfied
-    return new StudentRecord(parts[0].trim(), parts[1].trim(), parts[2].trim(), Boolean.parseBoolean(parts[3].trim()));
+
+    // Fields are read in the format name, email, campusID, preReqSatisfied
+    String name = trimmedSubstring(line, 0, nameEnd);
+    String email = trimmedSubstring(line, nameEnd + 2, emailEnd);
+    long campusID = StudentRecord.parseCampusID(line, emailEnd + 2, idEnd);
+    if(campusID < 0) {
+      throw new DataFormatException("Bad name, email, or campusID!");
+    }
+    // Same result as Boolean.parseBoolean() on the trimmed value
+    int start = idEnd + 2;
+    int end = line.length();
+    while(start < end && Character.isWhitespace(line.charAt(start))) {
+      start++;
+    }
+    while(end > start && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    boolean preReq = end - start == 4 && line.regionMatches(true, start, "true", 0, 4);
+    return new StudentRecord(name, email, campusID, preReq);
+  }
+
+  /**
+   * Returns the part of line between start and end, with leading and trailing whitespace removed.
+   * Only creates one string.
+   * 
+   * @param line  the line to read from
+   * @param start the index of the first character (inclusive)
+   * @param end   the index of the last character (exclusive)
+   * @return the trimmed substring
+   */
+  private static String trimmedSubstring(String line, int start, int end) {
+    while(start < end && Character.isWhitespace(line.charAt(start))) {
+      start++;
+    }
+    while(end > start && Character.isWhitespace(line.charAt(end - 1))) {
+      end--;
+    }
+    return line.substring(start, end);
+  }
+
+  /**
+   * Parses a line written by StudentRecord.appendEscapedTo(): name, email, campusID, preReqValue
+   * where a backslash, comma or line break in the name or email is escaped with a backslash. Fields
+   * are separated by the first unescaped ", ", so a name such as "Smith, John" is read back whole.
+   * Nothing is trimmed and preReqValue must be exactly true or false, since the line was written by
+   * this program rather than by hand.
+   * 
+   * @param line an escaped string representation of a student
+   * @return StudentRecord the StudentRecord generated from that line
+   * @throws DataFormatException if the line is not at the above format, has an unknown escape, or
+   *                             holds an invalid name, email or campusID
+   */
+  static StudentRecord escapedLineToRecord(String line) throws DataFormatException {
+    StringBuilder field = new StringBuilder();
+    int nameEnd = unescapeField(line, 0, field);
+    String name = field.toString();
+    field.setLength(0);
+    int emailEnd = nameEnd < 0 ? -1 : unescapeField(line, nameEnd + 2, field);
+    String email = field.toString();
+    int idEnd = emailEnd < 0 ? -1 : line.indexOf(", ", emailEnd + 2);
+    if(idEnd < 0) {
+      throw new DataFormatException("Bad student record: " + line);
+    }
+    long campusID = StudentRecord.parseCampusID(line, emailEnd + 2, idEnd);
+    if(campusID < 0) {
+      throw new DataFormatException("Bad name, email, or campusID!");
+    }
+    String preReq = line.substring(idEnd + 2);
+    if(!preReq.equals("true") && !preReq.equals("false")) {
+      throw new DataFormatException("Bad student record: " + line);
+    }
+    return new StudentRecord(name, email, campusID, preReq.equals("true"));
+  }
+
+  /**
+   * Reads one escaped field of a line, starting at start, up to the first unescaped ", "
+   * 
+   * @param line  the line to read from
+   * @param start the index of the first character of the field
+   * @param field where the unescaped field is appended
+   * @return the index of the comma ending the field, or -1 if the field is not followed by ", " or
+   *         holds an unknown escape or an unescaped comma
+   */
+  private static int unescapeField(String line, int start, StringBuilder field) {
+    for(int i = start; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if(c == ',') {
+        return i + 1 < line.length() && line.charAt(i + 1) == ' ' ? i : -1;
+      }
+      if(c != '\\') {
+        field.append(c);
+        continue;
+      }
+      if(++i == line.length()) {
+        return -1;
+      }
+      switch(line.charAt(i)) {
+        case '\\':
+        case ',':
+          field.append(line.charAt(i));
+          break;
+        case 'r':
+          field.append('\r');
+          break;
+        case 'n':
+          field.append('\n');
+          break;
+        default:
+          return -1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Loads a roster in from a file in a single pass, without printing anything per student itself;
+   * listeners still receive one ENROLLED event per student. The file contains string
+   * representations of StudentRecords each in a separate line, as written by saveRoster(). Blank
+   * lines are ignored.
+   * 
+   * Each valid student that has satisfied the prerequisites and is not already enrolled is enrolled
+   * (and removed from the waitlist if they were on it) until the roster is full. Every other line
+   * is counted in the returned summary with the reason it was rejected.
+   * 
+   * @param rosterFile file object to read
+   * @return a summary of the students loaded and rejected
+   * @throws IOException if the file could not be read, for example a NoSuchFileException if it does
+   *                     not exist
+   */
+  public RosterLoadSummary bulkLoadRoster(File rosterFile) throws IOException {
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    RosterLoadSummary summary = new RosterLoadSummary();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        Files.newInputStream(rosterFile.toPath()), StandardCharsets.UTF_8), READ_BUFFER_SIZE)) {
+      String line;
+      while((line = reader.readLine()) != null) {
+        if(line.isBlank()) {
+          continue;
+        }
+        StudentRecord student;
+        try {
+          student = lineToRecord(line);
+        }
+        catch(DataFormatException e) {
+          summary.countMalformed();
+          continue;
+        }
+        switch(tryEnroll(student)) {
+          case ENROLLED:
+            summary.countLoaded();
+            break;
+          case ALREADY_ENROLLED:
+            summary.countDuplicate();
+            break;
+          case PREREQUISITES_NOT_SATISFIED:
+            summary.countMissingPrerequisites();
+            break;
+          default: // COURSE_FULL
+            summary.countOverCapacity();
+        }
+      }
+    }
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.LOAD, start);
+    }
+    return summary;
   }
 
   /**
@@ -446,40 +2039,42 @@ public class ExceptionalCourseEnrollment {
    * 
    * Enrolls each student until the end of the file or the capacity of the roster is reached.
    * 
-   * Catches FileNotFoundException and prints the message "Could not find that file!"
-   * 
+   * @throws IllegalArgumentException with message "Could not find that file!" if rosterFile does
+   *                                  not exist
    * @throws IllegalStateException with message "The course capacity would be exceeded by loading
    *                               that student!" if the roster size would be exceeded after adding
    *                               that student.
    * @param rosterFile file object to read
    */
   public void loadRoster(File rosterFile) {
-    // Scanner created to read the input file
-    Scanner scanner = null;
-    try{
-      // Make sure the file exists
-      scanner = new Scanner(rosterFile);
+    EnrollmentMetrics metrics = EnrollmentMetrics.active();
+    long start = metrics == null ? 0 : System.nanoTime();
+    // Scanner created to read the input file, closed when the load ends however it ends
+    try (Scanner scanner = new Scanner(rosterFile)) {
+      int i = 0; // Variable created to make sure the saved roster size is not greater than 
+                 // enrollmentCapacity
+      while(scanner.hasNextLine()) { // If false, no more students in the roster and returns
+        if(i > enrollmentCapacity) {
+          throw new IllegalStateException();
+        }
+        try {
+          enrollOneStudent(lineToRecord(scanner.nextLine()));
+        } 
+        catch (DataFormatException e) {
+          e.getMessage();
+        }
+        catch(IllegalStateException e) {
+          e.getMessage();
+        }
+        i++;
+      }
     }
     catch(FileNotFoundException e){
-      System.out.println("Could not find that file!");
+      // Make sure the file exists
+      throw new IllegalArgumentException("Could not find that file!");
     }
-    
-    int i = 0; // Variable created to make sure the saved roster size is not greater than 
-               // enrollmentCapacity
-    while(scanner.hasNextLine()) { // If false, no more students in the roster and returns
-      if(i > enrollmentCapacity) {
-        throw new IllegalStateException();
-      }
-      try {
-        enrollOneStudent(lineToRecord(scanner.nextLine()));
-      } 
-      catch (DataFormatException e) {
-        e.getMessage();
-      }
-      catch(IllegalStateException e) {
-        e.getMessage();
-      }
-      i++;
+    if(metrics != null) {
+      metrics.record(EnrollmentMetrics.Operation.LOAD, start);
     }
   }
 }
@@ -1,8 +1,23 @@
 // TODO File Header COMES HERE
 // Be sure to credit the outside help section in the file header
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 
 /**
@@ -18,13 +33,40 @@ public class ExceptionalCourseEnrollmentDriver {
   private static final String NO_COURSE_ENROLLMANT_MSG =
       "Error: Create a new course enrollment first!";
   private static final String PATH = "saved_roster.txt";
-  private static ArrayList<ExceptionalCourseEnrollment> enrollments = new ArrayList<ExceptionalCourseEnrollment>();
+  private static final CourseCatalog catalog = new CourseCatalog();
+  /** Size in bytes of the buffers used in batch mode */
+  private static final int BATCH_BUFFER_SIZE = 64 * 1024;
+  /** the course enrollment commands apply to, null until one is created */
+  private static ExceptionalCourseEnrollment courseEnrollment;
+  /** prints the changes made to every course created here */
+  private static final ConsoleEnrollmentListener console = new ConsoleEnrollmentListener();
+  /** Longest time in milliseconds a command waits for its changes to be printed */
+  private static final long CONSOLE_TIMEOUT_MILLIS = 5000;
+
   /**
-   * Main method that launches this driver application
+   * Main method that launches this driver application. With the arguments --batch [script], the
+   * commands are read from the script file, or from System.in if no file is given, and run in batch
+   * mode without the menu; see runBatch() for the exit status.
    * 
    * @param args list of input arguments if any
    */
   public static void main(String[] args) {
+    // with -Denrollment.metrics=true, publish the metrics over JMX and dump them to System.err
+    EnrollmentMetrics metrics = EnrollmentMetrics.get();
+    if(metrics.isEnabled()) {
+      metrics.registerMBean();
+      metrics.startDump(System.err, Long.getLong("enrollment.metrics.period", 60));
+    }
+    if(args.length > 0 && args[0].equals("--batch")) {
+      // batch output is UTF-8 like the scripts, whatever the locale of the host
+      PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), false,
+          StandardCharsets.UTF_8);
+      int status = runBatch(args.length > 1 ? args[1] : null, out);
+      if(status != 0) {
+        System.exit(status);
+      }
+      return;
+    }
     // run application
     System.out.println(WELCOME_MSG); // display welcome message
     // Create a scanner to read the user inputs
@@ -47,6 +89,7 @@ public class ExceptionalCourseEnrollmentDriver {
     System.out.println("[3 <name>:<wisc_email>:<campus_ID>:boolean] Add student to waitlist");
     System.out.println("[4 <campus_ID>] Drop the course");
     System.out.println("[a <course index>] Switch to controlling course at index i");
+    System.out.println("[c <campus_ID>] Print the schedule of a student");
     System.out.println("[5] Print roster");
     System.out.println("[6] Print waitlist");
     System.out.println("[7] Save roster");
@@ -65,169 +108,230 @@ public class ExceptionalCourseEnrollmentDriver {
     String promptCommandLine = "ENTER COMMAND: ";    
     String command = null; // variable to save the user command line
 
-    // define an ExceptionalCourseEnrollment for the course enrollment, not yet initialized
-    ExceptionalCourseEnrollment courseEnrollment = null;
-
     // read and process user command lines until the user quits the application
-    do{
+    while(true) {
       
       displayMenu(); // display the main menu
       // read user command line
       System.out.print(promptCommandLine);
       command = scanner.nextLine();
-      // blank command
-      if(command == null || command.isBlank()) {
+      DriverCommand parsed = DriverCommand.parse(command);
+      // blank or malformed command
+      if(parsed == null) {
         System.out.println(SYNTAX_ERROR_MSG); // syntax error message
         continue; // go to the next iteration
       }
       
-      // Exit the loop if the user command is 7 for Quit
-      if(command.charAt(0) == 'b') {
+      // Exit the loop if the user command is e (or the former b) to quit
+      if(parsed.getType() == DriverCommand.Type.EXIT) {
         break; // exit the loop
       }
       
-      // Create new course enrollment 
-      if (command.charAt(0) == '1') {
-        // [1 <enrollment_capacity> <waitlist_capacity>] Create a new course enrollment
-        String[] parts = command.split(" ");
-        if (parts.length != 4) {// syntax error
-          System.out.println(SYNTAX_ERROR_MSG);
+      String error = processCommand(parsed);
+      if(error != null) {
+        System.out.println(error);
+      }
+    }
+      
+  }
+
+  /**
+   * Runs a batch script with processBatchCommands(). The script is read as UTF-8, from the file or
+   * from System.in alike. If the script cannot be opened or read, the message "Error: could not
+   * read script <script>!" is printed to System.err instead of a stack trace.
+   * 
+   * @param script the path of the script file, or null to read the script from System.in
+   * @param out    where the output of the commands and the summary are printed
+   * @return the exit status: 0 if every command succeeded, 1 if a command failed, or 2 if the
+   *         script could not be read
+   */
+  static int runBatch(String script, PrintStream out) {
+    try (BufferedReader reader = script != null
+        ? Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)
+        : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+            BATCH_BUFFER_SIZE)) {
+      return processBatchCommands(reader, out) > 0 ? 1 : 0;
+    }
+    catch (IOException e) {
+      System.err.println("Error: could not read script "
+          + (script != null ? script : "from standard input") + "!");
+      return 2;
+    }
+  }
+
+  /**
+   * Runs the commands of a script without displaying the menu, one command per line. Lines that are
+   * blank or start with # are skipped, and the script ends at its last line or at an e command.
+   * 
+   * Everything the commands print goes through one buffer, encoded as UTF-8, that is written to out
+   * at the end.
+   * Commands that fail do not print their error; instead, a summary with the number of commands run
+   * and every error, with the line of the script it came from, is printed after the output: <BR>
+   * Ran N commands in X ms, M failed.<BR>
+   * line L: command -> error message
+   * 
+   * @param reader the script to run
+   * @param out    where the output of the commands and the summary are printed
+   * @return the number of commands that failed
+   * @throws IOException if the script could not be read
+   */
+  static int processBatchCommands(BufferedReader reader, PrintStream out) throws IOException {
+    PrintStream console = System.out;
+    PrintStream buffered = new PrintStream(new BufferedOutputStream(out, BATCH_BUFFER_SIZE), false,
+        StandardCharsets.UTF_8);
+    ArrayList<String> errors = new ArrayList<String>();
+    int commands = 0;
+    long start = System.nanoTime();
+    System.setOut(buffered);
+    try {
+      String command;
+      int lineNumber = 0;
+      while((command = reader.readLine()) != null) {
+        lineNumber++;
+        if(command.isBlank() || command.charAt(0) == '#') {
           continue;
         }
-        // valid syntax: create lists
-        try {
-        	courseEnrollment = new ExceptionalCourseEnrollment(parts[1], Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
-        	System.out.println("Created course enrollment");
-        }
-        catch (Exception e) {
-        	System.out.println(e.getMessage());
+        DriverCommand parsed = DriverCommand.parse(command);
+        if(parsed != null && parsed.getType() == DriverCommand.Type.EXIT) {
+          break;
         }
-        finally {
-        	enrollments.add(courseEnrollment);
+        commands++;
+        String error = parsed == null ? SYNTAX_ERROR_MSG : processCommand(parsed);
+        if(error != null) {
+          errors.add("line " + lineNumber + ": " + command + " -> " + error);
         }
-        continue;
       }
-      
-      else { // any other type of command.
-        // Check whether the course enrollment lists were created
-        if (courseEnrollment == null || (courseEnrollment.deepCopyWaitlist() == null || courseEnrollment.deepCopyRoster() == null )) {
-          System.out.println(NO_COURSE_ENROLLMANT_MSG);
-          continue;
-        }
-        
-        String[] parts;
-        String name;
-        String email;
-        String campusID;
-        boolean preReq;
-        // process the user command line for the other options
-        switch (command.charAt(0)) {
-         
-          // Enroll student
-          case '2': // [2 <name>:<wisc_email>:<campus_ID>:boolean(true/false)] Enroll student
-            // The boolean indicates whether the pre-requisites of the course are satisfied or not
-        	parts = command.split(":");
-        	name = parts[0].split(" ")[1];
-        	email = parts[1];
-        	campusID = parts[2];
-        	preReq = Boolean.parseBoolean(parts[3]);
-        	try {
-        		StudentRecord student = new StudentRecord(name, email, campusID, preReq);
-        		courseEnrollment.enrollOneStudent(student);
-        	}
-        	catch (Exception e) {
-        		System.out.println(e.getMessage());
-        	}
-        	
-            
-            break;
-
-          case '3': // [3 <name>:<wisc_email>:<campus_ID>:boolean] Add student to waitlist
-        	parts = command.split(":");
-          	name = parts[0].split(" ")[1];
-          	email = parts[1];
-          	campusID = parts[2];
-          	preReq = Boolean.parseBoolean(parts[3]);
-          	try {
-          		StudentRecord student = new StudentRecord(name, email, campusID, preReq);
-          		courseEnrollment.addWaitlist(student);
-          	}
-          	catch (Exception e) {
-          		System.out.println(e.getMessage());
-          	}
-            break;
-
-          case '4': // [4 <campus_ID>] Drop the course
-        	parts = command.split(" ");
-        	try {
-        		StudentRecord student = courseEnrollment.searchById(parts[1], courseEnrollment.deepCopyRoster());
-        		courseEnrollment.dropCourse(student);
-        	}
-        	catch (Exception e) {
-        		System.out.println(e.getMessage());
-        	}
-            break;
-
-          case '5': // [5] Print roster
-            System.out.println(courseEnrollment.toString());
-            break;
-
-          case '6': // [6] Print waitlist
-        	 courseEnrollment.printWaitlist();
-            break;
-           
-          case '7': // [7] Save roster
-        	  try {
-        		  courseEnrollment.saveRoster(new File(PATH));
-        		  System.out.println("Saved roster to saved_roster.txt");
-        	  }
-        	  catch (Exception e) {
-        		  System.out.println(e.getMessage());
-        	  }
-             break;
-             
-          case '8': // [8] Load roster
-        	 try {
-        	   File roster = new File(PATH);
-        		 courseEnrollment.loadRoster(roster);
-        		 System.out.println("Loaded roster");
-        	 }
-        	 catch (Exception e) {
-        		 System.out.println(e.getMessage());
-        	 }
-             break;
-          case '9':
-        	  try {
-        		  for (int i = 0; i < enrollments.size(); i++) {
-        			  ExceptionalCourseEnrollment ce = enrollments.get(i);
-        			  if (ce != null) {
-        				  System.out.println(ce.toString() + "\n");
-        			  }
-        		  }
-        	  }
-        	  catch (Exception e) {
-        		  System.out.println(e.getMessage());
-        	  }
-        	  break;
-          case 'a':
-        	  try {
-        		  parts = command.split(" ");
-        		  courseEnrollment = enrollments.get(Integer.parseInt(parts[1]));
-        		  System.out.println("Switched to course " + courseEnrollment.getName());
-        	  }
-        	  catch(Exception e){
-        		  System.out.println(e.getMessage());
-        	  }
-        	  break;
-
-          default:
-            System.out.println(SYNTAX_ERROR_MSG); // Syntax Error
+    }
+    finally {
+      buffered.flush();
+      System.setOut(console);
+    }
+    long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+    StringBuilder summary = new StringBuilder();
+    summary.append("Ran ").append(commands).append(" commands in ").append(elapsedMillis)
+        .append(" ms, ").append(errors.size()).append(" failed.\n");
+    for(String error : errors) {
+      summary.append(error).append('\n');
+    }
+    out.print(summary);
+    out.flush();
+    return errors.size();
+  }
 
-        }
+  /**
+   * Runs one parsed command other than the exit command, printing whatever it displays, including
+   * the changes it made as printed by the console listener
+   * 
+   * @param command the parsed command line
+   * @return the error message of the command, or null if it succeeded
+   */
+  private static String processCommand(DriverCommand command) {
+    try {
+      // Create new course enrollment 
+      if (command.getType() == DriverCommand.Type.CREATE_COURSE) {
+        courseEnrollment = catalog.create(command.getCourseName(),
+            command.getEnrollmentCapacity(), command.getWaitlistCapacity());
+        courseEnrollment.addListener(console);
+        System.out.println("Created course enrollment");
+        return null;
       }
-      
-    }while(command.charAt(0) != 'e');
-      
+
+      // any other type of command.
+      // Check whether the course enrollment lists were created
+      if (courseEnrollment == null) {
+        return NO_COURSE_ENROLLMANT_MSG;
+      }
+
+      // process the user command line for the other options
+      switch (command.getType()) {
+
+        // Enroll student
+        case ENROLL: // [2 <name>:<wisc_email>:<campus_ID>:boolean(true/false)] Enroll student
+          // The boolean indicates whether the pre-requisites of the course are satisfied or not
+          courseEnrollment.enrollOneStudent(new StudentRecord(command.getStudentName(),
+              command.getEmail(), command.getCampusID(), command.isPrerequisiteSatisfied()));
+          return null;
+
+        case WAITLIST: // [3 <name>:<wisc_email>:<campus_ID>:boolean] Add student to waitlist
+          courseEnrollment.addWaitlist(new StudentRecord(command.getStudentName(),
+              command.getEmail(), command.getCampusID(), command.isPrerequisiteSatisfied()));
+          return null;
+
+        case DROP: // [4 <campus_ID>] Drop the course
+          courseEnrollment.dropCourse(courseEnrollment.searchById(command.getCampusID()));
+          return null;
+
+        case PRINT_ROSTER: // [5] Print roster
+          System.out.println(courseEnrollment.toString());
+          return null;
+
+        case PRINT_WAITLIST: // [6] Print waitlist
+          courseEnrollment.printWaitlist();
+          return null;
+
+        case SAVE_ROSTER: // [7] Save roster
+          courseEnrollment.saveRoster(new File(PATH));
+          System.out.println("Saved roster to saved_roster.txt");
+          return null;
+
+        case LOAD_ROSTER: // [8] Load roster
+          try {
+            System.out.println(courseEnrollment.bulkLoadRoster(new File(PATH)));
+          }
+          catch (NoSuchFileException e) {
+            return "Could not find that file!";
+          }
+          return null;
+
+        case PRINT_ALL: // [9] Print all course enrollments
+          // every course is rendered straight into one buffer instead of one string each
+          Writer out = new BufferedWriter(
+              new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+          for (ExceptionalCourseEnrollment ce : catalog.getCourses()) {
+            ce.appendTo(out);
+            out.write("\n\n");
+          }
+          out.flush(); // not closed, which would close System.out
+          return null;
+
+        case SWITCH_COURSE: // [a <course index>] Switch to controlling course at index i
+          courseEnrollment = catalog.get(command.getCourseIndex());
+          System.out.println("Switched to course " + courseEnrollment.getName());
+          return null;
+
+        case PRINT_SCHEDULE: // [c <campus_ID>] Print the schedule of a student
+          List<ScheduleEntry> schedule = catalog.getSchedule(command.getCampusID());
+          if (schedule.isEmpty()) {
+            System.out.println("That student is not in any course.");
+          }
+          for (ScheduleEntry entry : schedule) {
+            System.out.println(entry);
+          }
+          return null;
+
+        default:
+          return SYNTAX_ERROR_MSG; // Syntax Error
+      }
+    }
+    catch (Exception e) {
+      return e.getMessage() != null ? e.getMessage() : e.toString();
+    }
+    finally {
+      awaitConsole();
+    }
+  }
+
+  /**
+   * Waits until the console listener has printed the changes made so far, so that they appear
+   * before anything printed next
+   */
+  private static void awaitConsole() {
+    try {
+      EnrollmentEventDispatcher.SHARED.awaitDelivered(CONSOLE_TIMEOUT_MILLIS);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
 }
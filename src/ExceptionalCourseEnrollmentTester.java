@@ -1,7 +1,32 @@
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import java.util.zip.DataFormatException;
 
 /**
@@ -124,6 +149,11 @@ public class ExceptionalCourseEnrollmentTester {
       if (r1 != s1) {
         return false;
       }
+      // A campusID read from input is a different String object than the stored one
+      StudentRecord r2 = ExceptionalCourseEnrollment.searchById(" 1233367890 ", records);
+      if (r2 != s2) {
+        return false;
+      }
       // Does'nt find a student not in the array
       try {
         ExceptionalCourseEnrollment.searchById(s3.getCampusID(), records);
@@ -139,18 +169,1806 @@ public class ExceptionalCourseEnrollmentTester {
       }
 
     } catch (Exception e) {
-      System.out.println(errMsg);
+      System.out.println(errMsg);
+      return false;
+    }
+
+
+    try {
+
+    } catch (Exception e) {
+      return true;
+    }
+    return true;
+
+  }
+
+  /**
+   * Ensures the correctness of enrollOneStudent(), addWaitlist() and dropCourse() when the same
+   * student is passed as a different StudentRecord object with the same campusID.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean enrollAndDropTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      StudentRecord robCopy = new StudentRecord("Robert", "robert@wisc.edu", "1234567890", true);
+      StudentRecord sean = new StudentRecord("Sean", "sean@wisc.edu", "0987654321", true);
+
+      // A waitlisted student is removed from the waitlist once enrolled
+      course.addWaitlist(rob);
+      course.enrollOneStudent(robCopy);
+      if (course.deepCopyRoster().size() != 1 || !course.deepCopyWaitlist().isEmpty()) {
+        return false;
+      }
+      // Same campusID must be detected as a duplicate
+      try {
+        course.enrollOneStudent(rob);
+        return false;
+      } catch (IllegalStateException e) {
+        // expected behavior
+      }
+      try {
+        course.addWaitlist(rob);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // expected behavior
+      }
+      // Insertion order is kept and dropping by an equal record works
+      course.enrollOneStudent(sean);
+      if (course.deepCopyRoster().get(1) != sean) {
+        return false;
+      }
+      course.dropCourse(rob);
+      if (course.deepCopyRoster().size() != 1 || course.deepCopyRoster().get(0) != sean) {
+        return false;
+      }
+      try {
+        course.dropCourse(rob);
+        return false;
+      } catch (NoSuchElementException e) {
+        // expected behavior
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the indexed searchById() methods of a course enrollment
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean courseSearchByIdTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      StudentRecord joey = new StudentRecord("Joey", "joey@wisc.edu", "0233367890", true);
+      course.enrollOneStudent(rob);
+      course.enrollOneStudent(joey);
+      if (course.searchById(new String("0233367890")) != joey) {
+        return false;
+      }
+      try {
+        course.searchById("1111678900");
+        return false; // a NoSuchElementException was not thrown as expected
+      } catch (NoSuchElementException e) {
+        if (!e.getMessage().equals("No student record found!")) {
+          return false;
+        }
+      }
+      ArrayList<StudentRecord> found =
+          course.searchById(Arrays.asList("1234567890", "bad id", "0233367890"));
+      if (found.size() != 3 || found.get(0) != rob || found.get(1) != null
+          || found.get(2) != joey) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that a course enrollment saved with CourseSnapshot.write() is opened back with the same
+   * name, capacities, roster and waitlist, in the same order.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean courseSnapshotTester() {
+    File file = null;
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      course.enrollOneStudent(new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true));
+      course.enrollOneStudent(new StudentRecord("Ann", "ann@wisc.edu", "0000000042", true));
+      course.addWaitlist(new StudentRecord("Joey", "joey@wisc.edu", "1233367890", true));
+      course.expandEnrollmentCapacity(250);
+
+      file = File.createTempFile("snapshot", ".bin");
+      CourseSnapshot.write(course, file);
+      CourseSnapshot snapshot = CourseSnapshot.open(file);
+      if (!snapshot.getCourseName().equals("CS300") || snapshot.getEnrollmentCapacity() != 265
+          || snapshot.getWaitlistCapacity() != 5) {
+        return false;
+      }
+      ExceptionalCourseEnrollment restored = snapshot.toCourseEnrollment();
+      if (!restored.toString().equals(course.toString())
+          || !restored.deepCopyWaitlist().equals(course.deepCopyWaitlist())
+          || !restored.deepCopyWaitlist().get(0).getName().equals("Joey")) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (file != null) {
+        file.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that saveCourseState() and loadCourseState() keep the capacities, the waitlist and
+   * names containing ", ", and that a file with a bad header is rejected.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean courseStateTester() {
+    File file = null;
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      course.enrollOneStudent(new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true));
+      course.addWaitlist(new StudentRecord("Joey", "joey@wisc.edu", "1233367890", true));
+      course.addWaitlist(new StudentRecord("Ann", "ann@wisc.edu", "0000000042", true));
+      course.expandEnrollmentCapacity(5);
+      course.enrollOneStudent(new StudentRecord("Smith, John", "js@wisc.edu", "1000000001", true));
+
+      file = File.createTempFile("state", ".txt");
+      course.saveCourseState(file);
+      ExceptionalCourseEnrollment loaded = ExceptionalCourseEnrollment.loadCourseState(file);
+      if (!loaded.getName().equals("CS300") || loaded.getEnrollmentCapacity() != 20
+          || loaded.getWaitlistCapacity() != 5 || !loaded.toString().equals(course.toString())
+          || !loaded.deepCopyWaitlist().get(1).getName().equals("Ann")
+          || !loaded.deepCopyRoster().get(1).getName().equals("Smith, John")) {
+        return false;
+      }
+
+      course.saveRoster(file); // a roster file is not a course state file
+      try {
+        ExceptionalCourseEnrollment.loadCourseState(file);
+        return false;
+      } catch (DataFormatException e) {
+        // expected behavior
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (file != null) {
+        file.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that a course enrollment is recovered from its saved state and its EnrollmentLog with
+   * every change made after the state was saved.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean enrollmentLogTester() {
+    File stateFile = null;
+    File logFile = null;
+    try {
+      stateFile = File.createTempFile("state", ".txt");
+      logFile = File.createTempFile("enrollment", ".log");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      course.enrollOneStudent(rob);
+      course.saveCourseState(stateFile);
+
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        course.setLog(log);
+        course.addWaitlist(new StudentRecord("Joey", "joey@wisc.edu", "1233367890", true));
+        course.enrollOneStudent(new StudentRecord("Ann", "ann@wisc.edu", "0000000042", true));
+        course.dropCourse(rob);
+        course.expandEnrollmentCapacity(3);
+        course.addWaitlist(rob);
+        course.dropAndPromote(course.deepCopyRoster().get(0)); // Ann drops, Joey is promoted
+      }
+
+      ExceptionalCourseEnrollment recovered = EnrollmentLog.recover(stateFile, logFile);
+      if (!recovered.toString().equals(course.toString())
+          || !recovered.deepCopyWaitlist().equals(course.deepCopyWaitlist())
+          || recovered.getEnrollmentCapacity() != 18) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (stateFile != null) {
+        stateFile.delete();
+      }
+      if (logFile != null) {
+        logFile.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that many threads enrolling different students in the same course at the same time can
+   * never enroll more students than the enrollment capacity.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean concurrentEnrollTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 20, 5);
+      Thread[] threads = new Thread[8];
+      AtomicInteger enrolled = new AtomicInteger();
+      for (int t = 0; t < threads.length; t++) {
+        final int offset = t * 100;
+        threads[t] = new Thread(() -> {
+          for (int i = 0; i < 100; i++) {
+            try {
+              course.enrollOneStudent(new StudentRecord("s" + (offset + i),
+                  "s" + (offset + i) + "@wisc.edu", Long.toString(1000000000L + offset + i),
+                  true));
+              enrolled.incrementAndGet();
+            } catch (Exception e) {
+              // the course is full
+            }
+          }
+        });
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      if (enrolled.get() != 20 || course.deepCopyRoster().size() != 20 || !course.isRosterFull()) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of dropAndPromote(): the dropped student leaves the roster and the head
+   * of the waitlist takes the seat, only if the roster has room.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean dropAndPromoteTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord[] students = new StudentRecord[18];
+      for (int i = 0; i < students.length; i++) {
+        students[i] = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true);
+        if (i < 15) {
+          course.enrollOneStudent(students[i]);
+        } else {
+          course.addWaitlist(students[i]);
+        }
+      }
+      // students[15] is at the head of the waitlist
+      if (course.dropAndPromote(students[3]) != students[15] || !course.isRosterFull()
+          || course.deepCopyRoster().contains(students[3])
+          || course.deepCopyWaitlist().get(0) != students[16]) {
+        return false;
+      }
+      course.expandEnrollmentCapacity(5);
+      course.dropCourse(students[4]);
+      // the roster has room but nobody left in the waitlist after two promotions
+      if (course.dropAndPromote(students[5]) != students[16]
+          || course.dropAndPromote(students[6]) != students[17]
+          || course.dropAndPromote(students[7]) != null) {
+        return false;
+      }
+      try {
+        course.dropAndPromote(students[7]);
+        return false;
+      } catch (NoSuchElementException e) {
+        // expected behavior
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of enrollAll(): the roster is filled up to its capacity, the remaining
+   * students go to the waitlist until it is full, and duplicates and students missing prerequisites
+   * are rejected with the matching outcome.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean enrollAllTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 2);
+      ArrayList<StudentRecord> batch = new ArrayList<StudentRecord>();
+      for (int i = 0; i < 18; i++) {
+        batch.add(new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true));
+      }
+      batch.add(1, batch.get(0)); // duplicate of the first student
+      batch.add(2, new StudentRecord("no", "no@wisc.edu", "2000000000", false));
+
+      EnrollmentOutcome[] outcomes = course.enrollAll(batch);
+      if (outcomes.length != 20 || outcomes[0] != EnrollmentOutcome.ENROLLED
+          || outcomes[1] != EnrollmentOutcome.DUPLICATE_IN_BATCH
+          || outcomes[2] != EnrollmentOutcome.PREREQUISITES_NOT_SATISFIED
+          || outcomes[16] != EnrollmentOutcome.ENROLLED
+          || outcomes[17] != EnrollmentOutcome.WAITLISTED
+          || outcomes[18] != EnrollmentOutcome.WAITLISTED
+          || outcomes[19] != EnrollmentOutcome.WAITLIST_FULL) {
+        return false;
+      }
+      if (course.deepCopyRoster().size() != 15 || course.deepCopyWaitlist().size() != 2
+          || course.deepCopyWaitlist().get(0) != batch.get(17)) {
+        return false;
+      }
+      outcomes = course.waitlistAll(Arrays.asList(batch.get(0), batch.get(17)));
+      if (outcomes[0] != EnrollmentOutcome.ALREADY_ENROLLED
+          || outcomes[1] != EnrollmentOutcome.ALREADY_WAITLISTED) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the non-throwing tryEnroll(), tryAddWaitlist(), tryDrop() and
+   * tryExpandEnrollmentCapacity(): each rejection is reported as an outcome without changing the
+   * course enrollment.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean tryEnrollTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 1);
+      StudentRecord[] students = new StudentRecord[17];
+      for (int i = 0; i < students.length; i++) {
+        students[i] = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true);
+      }
+      StudentRecord noPreReq = new StudentRecord("no", "no@wisc.edu", "2000000000", false);
+      if (course.tryEnroll(null) != EnrollmentOutcome.INVALID_STUDENT
+          || course.tryEnroll(noPreReq) != EnrollmentOutcome.PREREQUISITES_NOT_SATISFIED) {
+        return false;
+      }
+      for (int i = 0; i < 15; i++) {
+        if (course.tryEnroll(students[i]) != EnrollmentOutcome.ENROLLED) {
+          return false;
+        }
+      }
+      if (course.tryEnroll(students[0]) != EnrollmentOutcome.ALREADY_ENROLLED
+          || course.tryEnroll(students[15]) != EnrollmentOutcome.COURSE_FULL
+          || course.tryAddWaitlist(students[0]) != EnrollmentOutcome.ALREADY_ENROLLED
+          || course.tryAddWaitlist(students[15]) != EnrollmentOutcome.WAITLISTED
+          || course.tryAddWaitlist(students[15]) != EnrollmentOutcome.ALREADY_WAITLISTED
+          || course.tryAddWaitlist(students[16]) != EnrollmentOutcome.WAITLIST_FULL) {
+        return false;
+      }
+      if (course.tryDrop(students[16]) != EnrollmentOutcome.NOT_ENROLLED
+          || course.tryDrop(null) != EnrollmentOutcome.INVALID_STUDENT
+          || course.tryDrop(students[0]) != EnrollmentOutcome.DROPPED
+          || course.deepCopyRoster().size() != 14) {
+        return false;
+      }
+      if (course.tryExpandEnrollmentCapacity(0) != EnrollmentOutcome.INVALID_INCREASE
+          || course.tryExpandEnrollmentCapacity(2) != EnrollmentOutcome.CAPACITY_EXPANDED
+          || course.getEnrollmentCapacity() != 17) {
+        return false;
+      }
+      // the throwing methods still report the same rejections as before
+      try {
+        course.addWaitlist(students[15]);
+        return false;
+      } catch (IllegalArgumentException e) {
+        if (!e.getMessage().equals("That student is already on the waitlist!")) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the enrollment listeners: every change is delivered in order on the
+   * dispatcher thread, a bad increase is thrown instead of printed, and a full event queue drops
+   * events instead of blocking the course.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean enrollmentListenerTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 2);
+      List<EnrollmentEvent> events = Collections.synchronizedList(new ArrayList<EnrollmentEvent>());
+      course.addListener(events::add);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      StudentRecord ann = new StudentRecord("Ann", "ann@wisc.edu", "1234567891", true);
+      course.tryEnroll(rob);
+      course.tryAddWaitlist(ann);
+      course.tryExpandEnrollmentCapacity(1);
+      course.dropAndPromote(rob);
+      if (!EnrollmentEventDispatcher.SHARED.awaitDelivered(5000) || events.size() != 5) {
+        return false;
+      }
+      if (events.get(0).getType() != EnrollmentEvent.Type.ENROLLED
+          || events.get(0).getStudent() != rob
+          || events.get(1).getType() != EnrollmentEvent.Type.WAITLISTED
+          || events.get(2).getType() != EnrollmentEvent.Type.CAPACITY_CHANGED
+          || events.get(2).getEnrollmentCapacity() != 16
+          || events.get(3).getType() != EnrollmentEvent.Type.DROPPED
+          || events.get(4).getType() != EnrollmentEvent.Type.PROMOTED
+          || !events.get(4).getStudents().equals(Arrays.asList(ann))) {
+        return false;
+      }
+      // errors are thrown rather than printed: only listeners print
+      try {
+        course.expandEnrollmentCapacity(0);
+        return false;
+      } catch (IllegalArgumentException e) {
+        if (!e.getMessage().equals("Increase amount must be greater than zero!")) {
+          return false;
+        }
+      }
+
+      // a dispatcher holding one event drops the next one while its listener is busy
+      CountDownLatch busy = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      EnrollmentEventDispatcher dispatcher = new EnrollmentEventDispatcher(1);
+      List<EnrollmentListener> slow = Arrays.asList(event -> {
+        busy.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      EnrollmentEvent event = events.get(0);
+      dispatcher.publish(slow, event);
+      busy.await();
+      boolean queued = dispatcher.publish(slow, event);
+      boolean dropped = !dispatcher.publish(slow, event);
+      release.countDown();
+      if (!queued || !dropped || dispatcher.getDropped() != 1
+          || !dispatcher.awaitDelivered(5000)) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of CourseCatalog: courses are found by name and by index, names are
+   * unique, and the reverse index follows enrollments, drops and removed courses.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean courseCatalogTester() {
+    try {
+      CourseCatalog catalog = new CourseCatalog();
+      ExceptionalCourseEnrollment cs300 = catalog.create("CS300", 15, 1);
+      ExceptionalCourseEnrollment cs400 = catalog.create("CS400", 15, 1);
+      try {
+        catalog.create("CS300", 20, 1);
+        return false;
+      } catch (IllegalArgumentException e) {
+        if (!e.getMessage().equals("A course with that name already exists!")) {
+          return false;
+        }
+      }
+      if (catalog.size() != 2 || catalog.get("CS400") != cs400 || catalog.get(0) != cs300) {
+        return false;
+      }
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      cs300.tryEnroll(rob);
+      cs400.tryEnroll(rob);
+      if (catalog.getCoursesOf("1234567890").size() != 2) {
+        return false;
+      }
+      cs300.tryDrop(rob);
+      if (!catalog.getCoursesOf(rob.getCampusIDValue()).equals(Arrays.asList(cs400))) {
+        return false;
+      }
+      catalog.remove("CS400");
+      if (!catalog.getCoursesOf("1234567890").isEmpty() || catalog.contains("CS400")
+          || catalog.getCourses().size() != 1) {
+        return false;
+      }
+      // a course added with students already enrolled is indexed
+      catalog.add(cs400);
+      if (!catalog.getCoursesOf("1234567890").equals(Arrays.asList(cs400))
+          || !catalog.getCoursesOf("bad").isEmpty()) {
+        return false;
+      }
+      try {
+        catalog.get("CS500");
+        return false;
+      } catch (NoSuchElementException e) {
+        // expected
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of CourseCatalog.getSchedule(): the status and waitlist position of a
+   * student follow every waitlist, promotion and drop.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean studentScheduleTester() {
+    try {
+      CourseCatalog catalog = new CourseCatalog();
+      ExceptionalCourseEnrollment cs300 = catalog.create("CS300", 15, 3);
+      ExceptionalCourseEnrollment cs400 = catalog.create("CS400", 15, 3);
+      for (int i = 0; i < 15; i++) {
+        cs300.tryEnroll(new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true));
+      }
+      StudentRecord ann = new StudentRecord("Ann", "ann@wisc.edu", "2000000000", true);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "2000000001", true);
+      cs300.tryAddWaitlist(ann);
+      cs400.tryEnroll(rob);
+      List<ScheduleEntry> schedule = catalog.getSchedule("2000000001");
+      if (schedule.size() != 1 || schedule.get(0).getCourse() != cs400
+          || schedule.get(0).getStatus() != ScheduleEntry.Status.ENROLLED) {
+        return false;
+      }
+      cs300.tryAddWaitlist(rob);
+      schedule = catalog.getSchedule(rob.getCampusIDValue());
+      if (schedule.size() != 2) {
+        return false;
+      }
+      for (ScheduleEntry entry : schedule) {
+        if (entry.getCourse() == cs300 && (entry.getStatus() != ScheduleEntry.Status.WAITLISTED
+            || entry.getWaitlistPosition() != 2)) {
+          return false;
+        }
+      }
+      // Ann is promoted, so Rob moves to the head of the waitlist
+      cs300.dropAndPromote(cs300.searchById("1000000000"));
+      schedule = catalog.getSchedule("2000000000");
+      if (schedule.size() != 1 || schedule.get(0).getStatus() != ScheduleEntry.Status.ENROLLED
+          || cs300.getWaitlistPosition(rob.getCampusIDValue()) != 1
+          || !catalog.getSchedule("1000000000").isEmpty()) {
+        return false;
+      }
+      if (!catalog.getCoursesOf("2000000001").equals(Arrays.asList(cs400))) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of rosterView() and waitlistView(): a view is shared until the next
+   * change to its own list, also by captureState(), is read-only, and is never affected by later
+   * changes.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean snapshotViewTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 2);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      StudentRecord ann = new StudentRecord("Ann", "ann@wisc.edu", "1234567891", true);
+      course.tryEnroll(rob);
+      long version = course.getVersion();
+      List<StudentRecord> roster = course.rosterView();
+      if (course.rosterView() != roster || roster.size() != 1 || course.getVersion() != version) {
+        return false;
+      }
+      try {
+        roster.add(ann);
+        return false;
+      } catch (UnsupportedOperationException e) {
+        // expected, views are read-only
+      }
+      // changes to the waitlist or the capacity leave the roster view valid
+      course.tryAddWaitlist(ann);
+      course.expandEnrollmentCapacity(1);
+      List<StudentRecord> waitlist = course.waitlistView();
+      if (course.getVersion() != version + 2 || course.rosterView() != roster
+          || !waitlist.equals(Arrays.asList(ann))) {
+        return false;
+      }
+      ExceptionalCourseEnrollment.SavedState state = course.captureState();
+      if (state.roster != roster || state.waitlist != waitlist) {
+        return false;
+      }
+      course.tryEnroll(ann);
+      if (roster.size() != 1 || course.rosterView().size() != 2
+          || !course.waitlistView().isEmpty()) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the Appendable rendering methods: each writes exactly the text of
+   * the matching toString(), rosterToString() or printWaitlist().
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean appendToTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 2);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "0034567890", true);
+      StudentRecord ann = new StudentRecord("Ann", "ann@wisc.edu", "1234567891", false);
+      StringBuilder out = new StringBuilder();
+      rob.appendTo(out);
+      if (!out.toString().equals(rob.toString())) {
+        return false;
+      }
+      if (!course.toString().equals("Course Name: CS300\nNumber of enrolled students: 0")
+          || !course.rosterToString().isEmpty()) {
+        return false;
+      }
+      course.tryEnroll(rob);
+      course.tryEnroll(new StudentRecord("Sean", "sean@wisc.edu", "1234567892", true));
+      if (!course.toString().equals("Course Name: CS300\nNumber of enrolled students: 2\n"
+          + "1. Rob, rob@wisc.edu, 0034567890, true\n2. Sean, sean@wisc.edu, 1234567892, true")) {
+        return false;
+      }
+      if (!course.rosterToString().equals(
+          "Rob, rob@wisc.edu, 0034567890, true\nSean, sean@wisc.edu, 1234567892, true")) {
+        return false;
+      }
+      out.setLength(0);
+      course.appendWaitlistTo(out);
+      if (!out.toString().equals("Waitlist capacity: 2\nThe waitlist is empty.\n")) {
+        return false;
+      }
+      course.applyWaitlist(ann);
+      out.setLength(0);
+      course.appendWaitlistTo(out);
+      if (!out.toString()
+          .equals("Waitlist capacity: 2\n1. Ann, ann@wisc.edu, 1234567891, false\n\n")) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the priority waitlist: FIFO by default, reordered by a custom
+   * policy with ties kept in arrival order, and consistent after removals from anywhere in it.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean waitlistPolicyTester() {
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 15);
+      for (int i = 0; i < 15; i++) {
+        course.tryEnroll(new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true));
+      }
+      String[] names = {"Dan", "Ann", "Cal", "Bea", "Ann"};
+      StudentRecord[] waiting = new StudentRecord[names.length];
+      for (int i = 0; i < names.length; i++) {
+        waiting[i] = new StudentRecord(names[i], "w" + i + "@wisc.edu",
+            Long.toString(2000000000L + i), true);
+        course.tryAddWaitlist(waiting[i]);
+      }
+      if (!course.waitlistView().equals(Arrays.asList(waiting))
+          || course.getWaitlistPosition(waiting[3].getCampusIDValue()) != 4) {
+        return false;
+      }
+      // by name, the two Anns keep their arrival order
+      course.setWaitlistPolicy(WaitlistPolicy.of(
+          (a, b) -> a.getName().compareTo(b.getName())));
+      if (!course.waitlistView().equals(
+          Arrays.asList(waiting[1], waiting[4], waiting[3], waiting[2], waiting[0]))
+          || course.getWaitlistPosition(waiting[0].getCampusIDValue()) != 5) {
+        return false;
+      }
+      // enrolling a waitlisted student removes them from the middle of the heap
+      course.tryExpandEnrollmentCapacity(1);
+      course.tryEnroll(waiting[3]);
+      if (course.dropAndPromote(course.searchById("1000000000")) != waiting[1]
+          || !course.waitlistView().equals(Arrays.asList(waiting[4], waiting[2], waiting[0]))) {
+        return false;
+      }
+
+      // the heap gives the same order as sorting, whatever the order of adds and removals
+      IndexedWaitlist heap = new IndexedWaitlist(4);
+      heap.setPolicy(WaitlistPolicy.of((a, b) -> Long.compare(
+          a.getCampusIDValue() % 7, b.getCampusIDValue() % 7)));
+      ArrayList<StudentRecord> expected = new ArrayList<StudentRecord>();
+      for (int i = 0; i < 200; i++) {
+        StudentRecord student = new StudentRecord("h" + i, "h" + i + "@wisc.edu",
+            Long.toString(3000000000L + (i * 37) % 200), true);
+        if (heap.add(student)) {
+          expected.add(student);
+        }
+        if (i % 3 == 0) {
+          StudentRecord gone = expected.remove(expected.size() / 2);
+          if (heap.remove(gone.getCampusIDValue()) != gone) {
+            return false;
+          }
+        }
+      }
+      expected.sort(heap.getPolicy()); // stable, so ties keep their arrival order
+      for (int i = 0; i < expected.size(); i++) {
+        if (heap.positionOf(expected.get(i).getCampusIDValue()) != i + 1) {
+          return false;
+        }
+      }
+      if (!heap.toList().equals(expected) || heap.poll() != expected.get(0)
+          || heap.size() != expected.size() - 1) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of expandEnrollmentCapacity(int, boolean): the new seats are filled
+   * from the head of the waitlist with a single PROMOTED event that is not affected by changes to
+   * the returned list, and the change survives a replay of the log.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean bulkPromoteTester() {
+    File stateFile = null;
+    File logFile = null;
+    try {
+      stateFile = File.createTempFile("state", ".txt");
+      logFile = File.createTempFile("enrollment", ".log");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 10);
+      for (int i = 0; i < 15; i++) {
+        course.tryEnroll(new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true));
+      }
+      ArrayList<StudentRecord> waiting = new ArrayList<StudentRecord>();
+      for (int i = 0; i < 6; i++) {
+        waiting.add(new StudentRecord("w" + i, "w" + i + "@wisc.edu",
+            Long.toString(2000000000L + i), true));
+        course.tryAddWaitlist(waiting.get(i));
+      }
+      course.saveCourseState(stateFile);
+      List<EnrollmentEvent> events = Collections.synchronizedList(new ArrayList<EnrollmentEvent>());
+      course.addListener(events::add);
+      List<StudentRecord> promoted;
+
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        course.setLog(log);
+        if (!course.expandEnrollmentCapacity(2, false).isEmpty()
+            || course.deepCopyWaitlist().size() != 6) {
+          return false;
+        }
+        // 2 seats opened above, 2 more here: 4 promoted
+        promoted = course.expandEnrollmentCapacity(2, true);
+        if (!promoted.equals(waiting.subList(0, 4))
+            || !course.waitlistView().equals(waiting.subList(4, 6))) {
+          return false;
+        }
+        // more seats than waitlisted students: the waitlist is drained
+        if (!course.expandEnrollmentCapacity(10, true).equals(waiting.subList(4, 6))
+            || !course.waitlistView().isEmpty() || course.rosterView().size() != 21) {
+          return false;
+        }
+      }
+      // the returned list belongs to the caller: changing it must not change the event
+      promoted.clear();
+      if (!EnrollmentEventDispatcher.SHARED.awaitDelivered(5000)) {
+        return false;
+      }
+      int promotedEvents = 0;
+      for (EnrollmentEvent event : events) {
+        if (event.getType() == EnrollmentEvent.Type.PROMOTED) {
+          promotedEvents++;
+        }
+      }
+      if (promotedEvents != 2 || events.get(2).getStudents().size() != 4) {
+        return false;
+      }
+      ExceptionalCourseEnrollment recovered = EnrollmentLog.recover(stateFile, logFile);
+      if (!recovered.toString().equals(course.toString())
+          || recovered.getEnrollmentCapacity() != 29) {
+        return false;
+      }
+      try {
+        course.expandEnrollmentCapacity(0, true);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (stateFile != null) {
+        stateFile.delete();
+      }
+      if (logFile != null) {
+        logFile.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of LatencyHistogram: percentiles are within the bucket error of the
+   * exact values, and adding histograms adds their counts.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean latencyHistogramTester() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    if (histogram.getValueAtPercentile(99) != 0 || histogram.getMean() != 0) {
+      return false;
+    }
+    for (long value = 1; value <= 100000; value++) {
+      histogram.record(value);
+    }
+    long p50 = histogram.getValueAtPercentile(50);
+    long p99 = histogram.getValueAtPercentile(99);
+    if (histogram.getCount() != 100000 || histogram.getMax() != 100000
+        || histogram.getMean() != 50000.5 || p50 < 50000 || p50 > 50000 * 65 / 64
+        || p99 < 99000 || p99 > 99000 * 65 / 64
+        || histogram.getValueAtPercentile(100) != 100000) {
+      return false;
+    }
+    // every value is in a bucket whose highest value is at least the value itself
+    for (long value : new long[] {0, 127, 128, 129, 1000, 123456789L, Long.MAX_VALUE}) {
+      int bucket = LatencyHistogram.bucketOf(value);
+      if (LatencyHistogram.highestValueOf(bucket) < value
+          || (bucket > 0 && LatencyHistogram.highestValueOf(bucket - 1) >= value)) {
+        return false;
+      }
+    }
+    LatencyHistogram other = new LatencyHistogram();
+    other.record(5000000);
+    histogram.add(other);
+    if (histogram.getCount() != 100001 || histogram.getMax() != 5000000) {
+      return false;
+    }
+    histogram.reset();
+    return histogram.getCount() == 0 && histogram.getValueAtPercentile(50) == 0;
+  }
+
+  /**
+   * Ensures the correctness of EnrollmentMetrics: nothing is recorded while they are disabled, and
+   * once enabled every instrumented call is counted by outcome and timed, and the metrics can be
+   * read over JMX.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean enrollmentMetricsTester() {
+    EnrollmentMetrics metrics = EnrollmentMetrics.get();
+    boolean wasEnabled = metrics.isEnabled();
+    File rosterFile = null;
+    try {
+      rosterFile = File.createTempFile("roster", ".txt");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord[] students = new StudentRecord[20];
+      for (int i = 0; i < students.length; i++) {
+        students[i] = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true);
+      }
+      metrics.setEnabled(false);
+      metrics.reset();
+      course.tryEnroll(students[0]);
+      course.tryDrop(students[0]);
+      if (metrics.getLatency(EnrollmentMetrics.Operation.ENROLL).getCount() != 0
+          || metrics.getOutcomeCount(EnrollmentOutcome.ENROLLED) != 0) {
+        return false;
+      }
+
+      metrics.setEnabled(true);
+      for (int i = 0; i < 16; i++) {
+        course.tryEnroll(students[i]); // the 16th finds the course full
+      }
+      course.tryEnroll(students[0]);
+      course.tryAddWaitlist(students[16]);
+      course.tryAddWaitlist(students[17]);
+      course.tryDrop(students[19]);
+      course.dropAndPromote(students[1]);
+      course.saveRoster(rosterFile);
+      course.bulkLoadRoster(rosterFile);
+      if (metrics.getOutcomeCount(EnrollmentOutcome.ENROLLED) != 15
+          || metrics.getOutcomeCount(EnrollmentOutcome.COURSE_FULL) != 1
+          || metrics.getOutcomeCount(EnrollmentOutcome.ALREADY_ENROLLED) != 16
+          || metrics.getOutcomeCount(EnrollmentOutcome.WAITLISTED) != 2
+          || metrics.getOutcomeCount(EnrollmentOutcome.NOT_ENROLLED) != 1
+          || metrics.getPromotedCount() != 1 || metrics.getMaxWaitlistDepth() != 2) {
+        return false;
+      }
+      // 16 + 1 tryEnroll calls, plus one per student of the loaded roster
+      if (metrics.getLatency(EnrollmentMetrics.Operation.ENROLL).getCount() != 32
+          || metrics.getLatency(EnrollmentMetrics.Operation.WAITLIST).getCount() != 2
+          || metrics.getLatency(EnrollmentMetrics.Operation.DROP).getCount() != 1
+          || metrics.getLatency(EnrollmentMetrics.Operation.SAVE).getCount() != 1
+          || metrics.getLatency(EnrollmentMetrics.Operation.LOAD).getCount() != 1
+          || metrics.getLatency(EnrollmentMetrics.Operation.SAVE).getMax() <= 0) {
+        return false;
+      }
+      String dump = metrics.dump();
+      if (!dump.contains("ENROLL    count=32") || !dump.contains("COURSE_FULL=1")
+          || !dump.contains("promoted  1")) {
+        return false;
+      }
+
+      metrics.registerMBean();
+      metrics.registerMBean(); // registering twice is allowed
+      javax.management.MBeanServer server =
+          java.lang.management.ManagementFactory.getPlatformMBeanServer();
+      javax.management.ObjectName name =
+          new javax.management.ObjectName(EnrollmentMetrics.OBJECT_NAME);
+      if (!Long.valueOf(1).equals(server.getAttribute(name, "PromotedCount"))
+          || !Boolean.TRUE.equals(server.getAttribute(name, "Enabled"))) {
+        return false;
+      }
+      server.unregisterMBean(name);
+    } catch (Exception e) {
+      return false;
+    } finally {
+      metrics.setEnabled(wasEnabled);
+      metrics.reset();
+      if (rosterFile != null) {
+        rosterFile.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of DriverCommand.parse(): every command of the menu is parsed into its
+   * type and arguments, and malformed lines are rejected with null instead of an exception.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean driverCommandTester() {
+    try {
+      DriverCommand create = DriverCommand.parse("1 CS300 30 10");
+      if (create.getType() != DriverCommand.Type.CREATE_COURSE
+          || !create.getCourseName().equals("CS300") || create.getEnrollmentCapacity() != 30
+          || create.getWaitlistCapacity() != 10) {
+        return false;
+      }
+      DriverCommand enroll = DriverCommand.parse("2 Ann:ann@wisc.edu:0123456789:true  ");
+      if (enroll.getType() != DriverCommand.Type.ENROLL || !enroll.getStudentName().equals("Ann")
+          || !enroll.getEmail().equals("ann@wisc.edu") || enroll.getCampusID() != 123456789L
+          || !enroll.isPrerequisiteSatisfied()) {
+        return false;
+      }
+      if (!DriverCommand.parse("2 Ann Lee:ann@wisc.edu:0123456789:true").getStudentName()
+          .equals("Ann Lee")) {
+        return false;
+      }
+      DriverCommand waitlist = DriverCommand.parse("3 Bob:bob@wisc.edu:12:False");
+      // a bad campusID is left for StudentRecord to report
+      if (waitlist.getType() != DriverCommand.Type.WAITLIST || waitlist.getCampusID() != -1
+          || waitlist.isPrerequisiteSatisfied()) {
+        return false;
+      }
+      if (DriverCommand.parse("4 1234567890").getCampusID() != 1234567890L
+          || DriverCommand.parse("c 1234567890").getType() != DriverCommand.Type.PRINT_SCHEDULE
+          || DriverCommand.parse("a 3").getCourseIndex() != 3
+          || DriverCommand.parse("9").getType() != DriverCommand.Type.PRINT_ALL
+          || DriverCommand.parse("e").getType() != DriverCommand.Type.EXIT) {
+        return false;
+      }
+      String[] malformed = {"", "   ", "1 CS300 30", "1 CS300 thirty 10", "1  CS300 30 10",
+          "2 Ann", "2 Ann:ann@wisc.edu:0123456789", "2 Ann:ann@wisc.edu:0123456789:yes",
+          "2 Ann:ann@wisc.edu:0123456789:true:x", "2 Smith, John:js@wisc.edu:0123456789:true",
+          "3 Ann:ann,b@wisc.edu:0123456789:true", "4", "4 1234567890 x", "a", "a 99999999999",
+          "5 x", "55", "z", "exit"};
+      for (String line : malformed) {
+        if (DriverCommand.parse(line) != null) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the constructor of ExceptionalCourseEnrollment rejects invalid capacities with the
+   * documented messages before allocating anything, even for capacities too large to allocate.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean courseConstructorTester() {
+    int[][] invalid = {{15, -2}, {15, 0}, {15, 16}, {15, Integer.MAX_VALUE}};
+    for (int[] capacities : invalid) {
+      try {
+        new ExceptionalCourseEnrollment("CS300", capacities[0], capacities[1]);
+        return false;
+      } catch (IllegalArgumentException e) {
+        if (!"Waitlist capacity must be between 0 and enrollment capacity!".equals(e.getMessage())) {
+          return false;
+        }
+      }
+    }
+    try {
+      new ExceptionalCourseEnrollment("CS300", Integer.MAX_VALUE, Integer.MAX_VALUE);
+      return false;
+    } catch (IllegalArgumentException e) {
+      if (!"Enrollment capacity must be between 0 and 250!".equals(e.getMessage())) {
+        return false;
+      }
+    }
+    // a valid course starts with an empty waitlist that grows past its initial size
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 250, 250);
+      for (int i = 0; i < 100; i++) {
+        StudentRecord student = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true);
+        if (course.tryAddWaitlist(student) != EnrollmentOutcome.WAITLISTED) {
+          return false;
+        }
+      }
+      return course.waitlistView().size() == 100;
+    } catch (Exception e) {
+      return false;
+    }
+  }
+
+  /**
+   * Ensures the correctness of saveRoster(): the file holds one student per line in roster order,
+   * it is written through a temporary file in the same directory, an existing file keeps its
+   * permissions, and a failed save leaves no temporary file behind.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean saveRosterTester() {
+    Path directory = null;
+    try {
+      directory = Files.createTempDirectory("roster");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      ArrayList<String> expected = new ArrayList<String>();
+      for (int i = 0; i < 3; i++) {
+        StudentRecord student = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true);
+        course.tryEnroll(student);
+        expected.add(student.toString());
+      }
+      Path target = directory.resolve("saved_roster.txt");
+      Path temp = ExceptionalCourseEnrollment.createTempSibling(target);
+      if (!temp.getParent().equals(directory) || !temp.getFileName().toString().endsWith(".tmp")) {
+        return false;
+      }
+      Files.delete(temp);
+
+      course.saveRoster(target.toFile());
+      if (!Files.readAllLines(target).equals(expected)) {
+        return false;
+      }
+      // an existing file keeps its permissions when it is replaced
+      if (target.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+        Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-r-----"));
+        course.tryDrop(course.searchById("1000000001"));
+        course.saveRoster(target.toFile());
+        if (!PosixFilePermissions.toString(Files.getPosixFilePermissions(target))
+            .equals("rw-r-----") || Files.readAllLines(target).size() != 2) {
+          return false;
+        }
+      }
+
+      // the move fails onto a non-empty directory: the temporary file must be deleted
+      Path blocked = directory.resolve("blocked");
+      Files.createDirectory(blocked);
+      Files.createFile(blocked.resolve("inside"));
+      try {
+        course.saveRoster(blocked.toFile());
+        return false;
+      } catch (IOException e) {
+        // expected
+      }
+      try (Stream<Path> files = Files.list(directory)) {
+        if (files.anyMatch(file -> file.getFileName().toString().endsWith(".tmp"))) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (directory != null) {
+        try (Stream<Path> files = Files.walk(directory)) {
+          files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+          // nothing more to clean up
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that students whose name or email contains a comma, a backslash or a line break are
+   * written to the EnrollmentLog escaped and recovered unchanged, and that escapedLineToRecord()
+   * rejects lines that were not written escaped.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean escapedRecordLogTester() {
+    File stateFile = null;
+    File logFile = null;
+    try {
+      StudentRecord smith = new StudentRecord("Smith, John", "js,1@wisc.edu", "1234567890", true);
+      StudentRecord odd = new StudentRecord("Back\\slash\r\nName, ", "odd@wisc.edu", "0000000001",
+          true);
+      StringBuilder line = new StringBuilder();
+      smith.appendEscapedTo(line);
+      if (!line.toString().equals("Smith\\, John, js\\,1@wisc.edu, 1234567890, true")) {
+        return false;
+      }
+      line.setLength(0);
+      odd.appendEscapedTo(line);
+      StudentRecord read = ExceptionalCourseEnrollment.escapedLineToRecord(line.toString());
+      if (!read.getName().equals(odd.getName()) || !read.getEmail().equals(odd.getEmail())
+          || line.indexOf("\n") >= 0) {
+        return false;
+      }
+      read = ExceptionalCourseEnrollment.escapedLineToRecord("Ann, a@wisc.edu, 0000000042, false");
+      if (read.isPrerequisiteSatisfied()) {
+        return false;
+      }
+      String[] badLines = {"Smith, John, js@wisc.edu, 1234567890, true",
+          "Sm\\ith, js@wisc.edu, 1234567890, true", "Smith\\",
+          "Smith, js@wisc.edu, 1234567890, yes", "Smith, js@wisc.edu, 12345, true"};
+      for (String badLine : badLines) {
+        try {
+          ExceptionalCourseEnrollment.escapedLineToRecord(badLine);
+          return false;
+        } catch (DataFormatException e) {
+          // expected
+        }
+      }
+
+      stateFile = File.createTempFile("state", ".txt");
+      logFile = File.createTempFile("enrollment", ".log");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      course.saveCourseState(stateFile);
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        course.setLog(log);
+        course.enrollOneStudent(smith);
+        course.addWaitlist(odd);
+      }
+      ExceptionalCourseEnrollment recovered = EnrollmentLog.recover(stateFile, logFile);
+      if (!recovered.deepCopyRoster().get(0).getName().equals("Smith, John")
+          || !recovered.deepCopyRoster().get(0).getEmail().equals("js,1@wisc.edu")
+          || !recovered.deepCopyWaitlist().get(0).getName().equals(odd.getName())) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (stateFile != null) {
+        stateFile.delete();
+      }
+      if (logFile != null) {
+        logFile.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that a snapshot whose offsets or lengths were damaged is reported with the documented
+   * "Corrupted course snapshot!" error instead of reading out of bounds.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean corruptedSnapshotTester() {
+    File file = null;
+    try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      course.enrollOneStudent(new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true));
+      file = File.createTempFile("snapshot", ".bin");
+      CourseSnapshot.write(course, file);
+      byte[] saved = Files.readAllBytes(file.toPath());
+      ByteBuffer bytes = ByteBuffer.wrap(saved);
+      int recordPointer = (int) bytes.getLong(saved.length - Long.BYTES); // the offset table
+      int record = bytes.getInt(recordPointer);
+
+      // the course name length (at 22), a record offset, then a student name length (after the
+      // campusID and preReq of the record) are each replaced with a value out of the file
+      int[][] damages = {{22, -1}, {22, Integer.MAX_VALUE}, {recordPointer, -4},
+          {recordPointer, saved.length - 3}, {record + Long.BYTES + 1, -7},
+          {record + Long.BYTES + 1, Integer.MAX_VALUE}};
+      for (int[] damage : damages) {
+        ByteBuffer damaged = ByteBuffer.wrap(saved.clone());
+        damaged.putInt(damage[0], damage[1]);
+        Files.write(file.toPath(), damaged.array());
+        try {
+          CourseSnapshot.open(file).getRoster().get(0);
+          return false;
+        } catch (IOException | IllegalStateException e) {
+          if (!"Corrupted course snapshot!".equals(e.getMessage())) {
+            return false;
+          }
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (file != null) {
+        file.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures the correctness of the batch mode of ExceptionalCourseEnrollmentDriver: blank lines
+   * and # comments are skipped but counted in the line numbers, each failed command is reported
+   * with its line in the summary, the script stops at e, the number of failed commands is returned,
+   * and a missing script is reported with an error message and exit status 2.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean batchModeTester() {
+    PrintStream err = System.err;
+    try {
+      String script = "# creates a course and enrolls two students\n"
+          + "1 BATCHTEST 15 5\n"
+          + "\n"
+          + "2 Ann:ann@wisc.edu:0000000001:true\n"
+          + "2 Bob:bob@wisc.edu:12:true\n"
+          + "zzz\n"
+          + "   \n"
+          + "e\n"
+          + "2 Cal:cal@wisc.edu:0000000003:true\n";
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      PrintStream out = new PrintStream(bytes, true, "UTF-8");
+      int failed = ExceptionalCourseEnrollmentDriver
+          .processBatchCommands(new BufferedReader(new StringReader(script)), out);
+      String[] lines = bytes.toString("UTF-8").split("\n");
+      if (failed != 2 || lines.length != 5 || !lines[0].equals("Created course enrollment")
+          || !lines[1].equals("BATCHTEST: Ann was enrolled.")
+          || !lines[2].matches("Ran 4 commands in \\d+ ms, 2 failed\\.")
+          || !lines[3].equals("line 5: 2 Bob:bob@wisc.edu:12:true -> Bad name, email, or campusID!")
+          || !lines[4].equals("line 6: zzz -> Syntax Error: Please enter a valid command!")) {
+        return false;
+      }
+
+      // the course created above is still selected: Cal was never enrolled since the script
+      // stopped at e
+      bytes.reset();
+      failed = ExceptionalCourseEnrollmentDriver
+          .processBatchCommands(new BufferedReader(new StringReader("5")), out);
+      String output = bytes.toString("UTF-8");
+      if (failed != 0 || !output.contains("Ann") || output.contains("Cal")
+          || !output.matches("(?s).*Ran 1 commands in \\d+ ms, 0 failed\\.\n")) {
+        return false;
+      }
+
+      // a missing script is an error message and exit status 2, not a stack trace
+      bytes.reset();
+      System.setErr(out);
+      if (ExceptionalCourseEnrollmentDriver.runBatch("no_such_script.txt", out) != 2
+          || !bytes.toString("UTF-8").equals(
+              "Error: could not read script no_such_script.txt!" + System.lineSeparator())) {
+        return false;
+      }
+    } catch (Exception e) {
       return false;
+    } finally {
+      System.setErr(err);
     }
+    return true;
+  }
 
+  /**
+   * Ensures the correctness of lineToRecord(): whitespace around the fields is trimmed, the
+   * prerequisite value is parsed like Boolean.parseBoolean(), and lines with the wrong number of
+   * fields or an invalid campusID or email are rejected.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean lineToRecordTester() {
+    try {
+      StudentRecord ann =
+          ExceptionalCourseEnrollment.lineToRecord("  Ann ,  ann@wisc.edu , 0000000042 ,  TRUE  ");
+      if (!ann.getName().equals("Ann") || !ann.getEmail().equals("ann@wisc.edu")
+          || !ann.getCampusID().equals("0000000042") || !ann.isPrerequisiteSatisfied()) {
+        return false;
+      }
+      if (ExceptionalCourseEnrollment.lineToRecord("Bob, bob@wisc.edu, 1234567890, false")
+          .isPrerequisiteSatisfied()
+          || ExceptionalCourseEnrollment.lineToRecord("Bob, bob@wisc.edu, 1234567890, yes")
+              .isPrerequisiteSatisfied()) {
+        return false;
+      }
+      String[] badLines = {"Bob, bob@wisc.edu, 1234567890",
+          "Bob, x, bob@wisc.edu, 1234567890, true", "Bob, bob@wisc.edu, 12345abcde, true",
+          "Bob, bob@wisc.edu, 123456789, true", "Bob, bob@wisc.edu, 12345678901, true",
+          "Bob, bob@gmail.com, 1234567890, true",
+          " , bob@wisc.edu, 1234567890, true", ""};
+      for (String line : badLines) {
+        try {
+          ExceptionalCourseEnrollment.lineToRecord(line);
+          return false;
+        } catch (DataFormatException e) {
+          // expected
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    }
+    return true;
+  }
 
+  /**
+   * Ensures that bulkLoadRoster() enrolls the valid students of a file and counts every rejected
+   * line under the right reason in the returned RosterLoadSummary.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean bulkLoadRosterTester() {
+    File file = null;
     try {
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      for (int i = 0; i < 13; i++) {
+        course.tryEnroll(new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+            Long.toString(1000000000L + i), true));
+      }
+      file = File.createTempFile("roster", ".txt");
+      Files.write(file.toPath(), Arrays.asList(
+          "s0, s0@wisc.edu, 1000000000, true", // already enrolled
+          "Ann, ann@wisc.edu, 0000000042, true", // loaded
+          "Ann, ann@wisc.edu, 0000000042, true", // listed twice
+          "Bob, bob@wisc.edu, 2000000000, false", // missing prerequisites
+          "not a student", // malformed
+          "   ", // blank, ignored
+          "Cal, cal@wisc.edu, 3000000000, true", // loaded, the roster is now full
+          "Dan, dan@wisc.edu, 4000000000, true")); // over capacity
+      RosterLoadSummary summary = course.bulkLoadRoster(file);
+      if (summary.getLoaded() != 2 || summary.getDuplicates() != 2
+          || summary.getMissingPrerequisites() != 1 || summary.getMalformed() != 1
+          || summary.getOverCapacity() != 1 || summary.getRejected() != 5
+          || course.rosterView().size() != 15 || !summary.toString().equals(
+              "Loaded 2 students (5 rejected: 1 malformed, 2 duplicates, 1 missing prerequisites, "
+                  + "1 over capacity)")) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (file != null) {
+        file.delete();
+      }
+    }
+    return true;
+  }
 
+  /**
+   * Ensures the correctness of CampusIDIndex and IndexedRoster by comparing them with a HashMap and
+   * a LinkedHashMap over random additions and removals, so that entries shifted back after a
+   * removal and a compacted roster are both exercised.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean campusIDIndexTester() {
+    try {
+      Random random = new Random(300);
+      CampusIDIndex index = new CampusIDIndex(0);
+      HashMap<Long, Integer> expectedIndex = new HashMap<Long, Integer>();
+      IndexedRoster roster = new IndexedRoster();
+      LinkedHashMap<Long, StudentRecord> expectedRoster = new LinkedHashMap<Long, StudentRecord>();
+      for (int i = 0; i < 20000; i++) {
+        // few distinct campusIDs, so that the same students are often removed and added again
+        long campusID = 1000000000L + random.nextInt(500);
+        if (random.nextInt(3) == 0) {
+          Integer removed = expectedIndex.remove(campusID);
+          if (index.remove(campusID) != (removed == null ? CampusIDIndex.ABSENT : removed)
+              || roster.remove(campusID) != expectedRoster.remove(campusID)) {
+            return false;
+          }
+        } else {
+          Integer previous = expectedIndex.put(campusID, i);
+          StudentRecord student = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+              Long.toString(campusID), true);
+          if (index.put(campusID, i) != (previous == null ? CampusIDIndex.ABSENT : previous)
+              || roster.put(student) != expectedRoster.put(campusID, student)) {
+            return false;
+          }
+        }
+      }
+      if (index.size() != expectedIndex.size() || roster.size() != expectedRoster.size()
+          || !roster.toList().equals(new ArrayList<StudentRecord>(expectedRoster.values()))) {
+        return false;
+      }
+      for (long campusID = 1000000000L; campusID < 1000000500L; campusID++) {
+        Integer expected = expectedIndex.get(campusID);
+        if (index.get(campusID) != (expected == null ? CampusIDIndex.ABSENT : expected)
+            || roster.contains(campusID) != expectedRoster.containsKey(campusID)) {
+          return false;
+        }
+      }
     } catch (Exception e) {
-      return true;
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * A FileChannel that fails once: one write puts half of its bytes in the file, like a write torn
+   * by a full disk, and throws. Every other call goes to the real channel.
+   */
+  private static class FailingChannel extends FileChannel {
+    private final FileChannel channel;
+    private int writesBeforeFailure;
+
+    /**
+     * Wraps a channel
+     * 
+     * @param channel             the real channel
+     * @param writesBeforeFailure the number of writes that succeed before the one that fails
+     */
+    private FailingChannel(FileChannel channel, int writesBeforeFailure) {
+      this.channel = channel;
+      this.writesBeforeFailure = writesBeforeFailure;
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      if (writesBeforeFailure-- == 0) {
+        ByteBuffer half = src.duplicate();
+        half.limit(src.position() + src.remaining() / 2);
+        channel.write(half);
+        throw new IOException("No space left on device");
+      }
+      return channel.write(src);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      return channel.read(dst);
+    }
+
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+      return channel.read(dsts, offset, length);
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+      return channel.write(srcs, offset, length);
+    }
+
+    @Override
+    public long position() throws IOException {
+      return channel.position();
+    }
+
+    @Override
+    public FileChannel position(long newPosition) throws IOException {
+      channel.position(newPosition);
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public FileChannel truncate(long size) throws IOException {
+      channel.truncate(size);
+      return this;
+    }
+
+    @Override
+    public void force(boolean metaData) throws IOException {
+      channel.force(metaData);
+    }
+
+    @Override
+    public long transferTo(long position, long count, WritableByteChannel target)
+        throws IOException {
+      return channel.transferTo(position, count, target);
+    }
+
+    @Override
+    public long transferFrom(ReadableByteChannel src, long position, long count)
+        throws IOException {
+      return channel.transferFrom(src, position, count);
+    }
+
+    @Override
+    public int read(ByteBuffer dst, long position) throws IOException {
+      return channel.read(dst, position);
+    }
+
+    @Override
+    public int write(ByteBuffer src, long position) throws IOException {
+      return channel.write(src, position);
+    }
+
+    @Override
+    public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+      return channel.map(mode, position, size);
+    }
+
+    @Override
+    public FileLock lock(long position, long size, boolean shared) throws IOException {
+      return channel.lock(position, size, shared);
+    }
+
+    @Override
+    public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+      return channel.tryLock(position, size, shared);
+    }
+
+    @Override
+    protected void implCloseChannel() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * Ensures that an EnrollmentLog fails fast when a commit fails: the torn part of the failed group
+   * is cut off, the failure is reported by sync() and close(), later changes are rejected before
+   * being made, and the file replays to the last group committed whole.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean failedLogTester() {
+    File logFile = null;
+    try {
+      logFile = File.createTempFile("enrollment", ".log");
+      FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE,
+          StandardOpenOption.APPEND);
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      StudentRecord ann = new StudentRecord("Ann", "ann@wisc.edu", "0000000042", true);
+      StudentRecord cal = new StudentRecord("Cal", "cal@wisc.edu", "0000000043", true);
+      // a long commit interval, so that only sync() commits
+      EnrollmentLog log = new EnrollmentLog(new FailingChannel(channel, 1), 60_000, false);
+      course.setLog(log);
+      course.tryEnroll(rob);
+      log.sync();
+      course.tryEnroll(ann);
+      try {
+        log.sync();
+        return false;
+      } catch (IOException e) {
+        // expected, the second write fails
+      }
+      // the channel works again, but the log must not commit or accept anything more
+      try {
+        course.tryEnroll(cal);
+        return false;
+      } catch (IllegalStateException e) {
+        if (!e.getMessage().equals("The enrollment log could not be written!")
+            || course.rosterView().contains(cal)) {
+          return false;
+        }
+      }
+      try {
+        log.sync();
+        return false;
+      } catch (IOException e) {
+        // expected, the failure is reported again
+      }
+      try {
+        log.close();
+        return false;
+      } catch (IOException e) {
+        // expected, the failure is reported again
+      }
+      ExceptionalCourseEnrollment replayed = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      if (!Files.readString(logFile.toPath()).equals("E Rob, rob@wisc.edu, 1234567890, true\n")
+          || EnrollmentLog.replay(logFile, replayed) != 1
+          || !replayed.rosterView().equals(Arrays.asList(rob))) {
+        return false;
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (logFile != null) {
+        logFile.delete();
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Ensures that a synchronous EnrollmentLog only lets a change return once it is on disk, also
+   * when many threads make changes at the same time, while the background commits never run.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean synchronousLogTester() {
+    File logFile = null;
+    try {
+      logFile = File.createTempFile("enrollment", ".log");
+      Path path = logFile.toPath();
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 250, 5);
+      // a long commit interval, so that only the synchronous path commits
+      try (EnrollmentLog log = new EnrollmentLog(logFile, 60_000, true)) {
+        course.setLog(log);
+        if (!log.isSynchronous()) {
+          return false;
+        }
+        course.tryEnroll(new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true));
+        if (!Files.readString(path).equals("E Rob, rob@wisc.edu, 1234567890, true\n")) {
+          return false;
+        }
+        StudentRecord[] students = new StudentRecord[100];
+        for (int i = 0; i < students.length; i++) {
+          students[i] = new StudentRecord("s" + i, "s" + i + "@wisc.edu",
+              Long.toString(1000000000L + i), true);
+        }
+        AtomicInteger missing = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+          int first = t * 25;
+          threads[t] = new Thread(() -> {
+            for (int i = first; i < first + 25; i++) {
+              course.tryEnroll(students[i]);
+              try {
+                if (!Files.readString(path).contains(students[i].getCampusID())) {
+                  missing.incrementAndGet();
+                }
+              } catch (IOException e) {
+                missing.incrementAndGet();
+              }
+            }
+          });
+          threads[t].start();
+        }
+        for (Thread thread : threads) {
+          thread.join();
+        }
+        if (missing.get() != 0 || Files.readAllLines(path).size() != 101) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (logFile != null) {
+        logFile.delete();
+      }
     }
     return true;
+  }
+
+  /**
+   * Ensures that recovering from a state saved while the log was attached skips the changes the
+   * state already includes, as after a crash between saving a checkpoint and truncating the log,
+   * and that a state which the log does not follow is rejected.
+   * 
+   * @return true if and only if the tester verifies a correct functionality and false if at least
+   *         one bug is detected
+   */
+  public static boolean checkpointReplayTester() {
+    File stateFile = null;
+    File staleFile = null;
+    File logFile = null;
+    try {
+      stateFile = File.createTempFile("state", ".txt");
+      staleFile = File.createTempFile("stale", ".txt");
+      logFile = File.createTempFile("enrollment", ".log");
+      ExceptionalCourseEnrollment course = new ExceptionalCourseEnrollment("CS300", 15, 5);
+      StudentRecord rob = new StudentRecord("Rob", "rob@wisc.edu", "1234567890", true);
+      course.saveCourseState(stateFile);
+
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        course.setLog(log);
+        course.enrollOneStudent(rob);
+        course.addWaitlist(new StudentRecord("Joey", "joey@wisc.edu", "1233367890", true));
+        course.expandEnrollmentCapacity(3);
+        // the checkpoint is saved but the process dies before the log is truncated
+        course.saveCourseState(stateFile);
+        course.saveCourseState(staleFile);
+        course.enrollOneStudent(new StudentRecord("Ann", "ann@wisc.edu", "0000000042", true));
+      }
+      ExceptionalCourseEnrollment recovered = EnrollmentLog.recover(stateFile, logFile);
+      if (!recovered.toString().equals(course.toString())
+          || !recovered.deepCopyWaitlist().equals(course.deepCopyWaitlist())
+          || recovered.getEnrollmentCapacity() != 18) {
+        return false;
+      }
+
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        if (log.getGeneration() != 0 || log.getEntries() != 4) {
+          return false;
+        }
+        course.setLog(log);
+        course.saveCheckpoint(stateFile);
+        course.dropCourse(rob);
+        course.expandEnrollmentCapacity(2);
+      }
+      recovered = EnrollmentLog.recover(stateFile, logFile);
+      if (!recovered.toString().equals(course.toString())
+          || recovered.getEnrollmentCapacity() != 20) {
+        return false;
+      }
 
+      try (EnrollmentLog log = new EnrollmentLog(logFile)) {
+        if (log.getGeneration() != 1 || log.getEntries() != 2) {
+          return false;
+        }
+        course.setLog(log);
+        course.saveCheckpoint(stateFile);
+      }
+      try {
+        EnrollmentLog.recover(staleFile, logFile); // saved two generations of the log ago
+        return false;
+      } catch (DataFormatException e) {
+        if (!e.getMessage().equals("Enrollment log does not follow the saved state!")) {
+          return false;
+        }
+      }
+    } catch (Exception e) {
+      return false;
+    } finally {
+      if (stateFile != null) {
+        stateFile.delete();
+      }
+      if (staleFile != null) {
+        staleFile.delete();
+      }
+      if (logFile != null) {
+        logFile.delete();
+      }
+    }
+    return true;
   }
 
   // You are welcome but NOT required to implement additional tester methods at your choice
@@ -179,8 +1997,121 @@ public class ExceptionalCourseEnrollmentTester {
     System.out.println("studentRecordConstructorUnSuccessful: "
         + (studentRecordConstructorUnSuccessfulOutput ? "Pass" : "Failed!"));
     System.out.println("-----------------------------------------------");
+    boolean enrollAndDropTesterOutput = enrollAndDropTester();
+    System.out.println("enrollAndDropTester: " + (enrollAndDropTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean courseSearchByIdTesterOutput = courseSearchByIdTester();
+    System.out.println(
+        "courseSearchByIdTester: " + (courseSearchByIdTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean courseSnapshotTesterOutput = courseSnapshotTester();
+    System.out.println("courseSnapshotTester: " + (courseSnapshotTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean courseStateTesterOutput = courseStateTester();
+    System.out.println("courseStateTester: " + (courseStateTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean enrollmentLogTesterOutput = enrollmentLogTester();
+    System.out.println("enrollmentLogTester: " + (enrollmentLogTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean concurrentEnrollTesterOutput = concurrentEnrollTester();
+    System.out.println(
+        "concurrentEnrollTester: " + (concurrentEnrollTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean dropAndPromoteTesterOutput = dropAndPromoteTester();
+    System.out.println("dropAndPromoteTester: " + (dropAndPromoteTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean enrollAllTesterOutput = enrollAllTester();
+    System.out.println("enrollAllTester: " + (enrollAllTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean tryEnrollTesterOutput = tryEnrollTester();
+    System.out.println("tryEnrollTester: " + (tryEnrollTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean enrollmentListenerTesterOutput = enrollmentListenerTester();
+    System.out.println(
+        "enrollmentListenerTester: " + (enrollmentListenerTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean courseCatalogTesterOutput = courseCatalogTester();
+    System.out.println("courseCatalogTester: " + (courseCatalogTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean studentScheduleTesterOutput = studentScheduleTester();
+    System.out.println(
+        "studentScheduleTester: " + (studentScheduleTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean snapshotViewTesterOutput = snapshotViewTester();
+    System.out.println("snapshotViewTester: " + (snapshotViewTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean appendToTesterOutput = appendToTester();
+    System.out.println("appendToTester: " + (appendToTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean waitlistPolicyTesterOutput = waitlistPolicyTester();
+    System.out.println(
+        "waitlistPolicyTester: " + (waitlistPolicyTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean bulkPromoteTesterOutput = bulkPromoteTester();
+    System.out.println("bulkPromoteTester: " + (bulkPromoteTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean latencyHistogramTesterOutput = latencyHistogramTester();
+    System.out.println(
+        "latencyHistogramTester: " + (latencyHistogramTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean enrollmentMetricsTesterOutput = enrollmentMetricsTester();
+    System.out.println(
+        "enrollmentMetricsTester: " + (enrollmentMetricsTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean driverCommandTesterOutput = driverCommandTester();
+    System.out.println("driverCommandTester: " + (driverCommandTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean courseConstructorTesterOutput = courseConstructorTester();
+    System.out.println(
+        "courseConstructorTester: " + (courseConstructorTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean saveRosterTesterOutput = saveRosterTester();
+    System.out.println("saveRosterTester: " + (saveRosterTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean escapedRecordLogTesterOutput = escapedRecordLogTester();
+    System.out.println(
+        "escapedRecordLogTester: " + (escapedRecordLogTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean corruptedSnapshotTesterOutput = corruptedSnapshotTester();
+    System.out.println(
+        "corruptedSnapshotTester: " + (corruptedSnapshotTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean batchModeTesterOutput = batchModeTester();
+    System.out.println("batchModeTester: " + (batchModeTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean lineToRecordTesterOutput = lineToRecordTester();
+    System.out.println("lineToRecordTester: " + (lineToRecordTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean bulkLoadRosterTesterOutput = bulkLoadRosterTester();
+    System.out.println(
+        "bulkLoadRosterTester: " + (bulkLoadRosterTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean campusIDIndexTesterOutput = campusIDIndexTester();
+    System.out.println("campusIDIndexTester: " + (campusIDIndexTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean failedLogTesterOutput = failedLogTester();
+    System.out.println("failedLogTester: " + (failedLogTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean synchronousLogTesterOutput = synchronousLogTester();
+    System.out.println(
+        "synchronousLogTester: " + (synchronousLogTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
+    boolean checkpointReplayTesterOutput = checkpointReplayTester();
+    System.out.println(
+        "checkpointReplayTester: " + (checkpointReplayTesterOutput ? "Pass" : "Failed!"));
+    System.out.println("-----------------------------------------------");
     return searchTesterOutput && studentRecordEqualsTesterOutput
-        && studentRecordConstructorSuccessfulOutput;
+        && studentRecordConstructorSuccessfulOutput && enrollAndDropTesterOutput
+        && courseSearchByIdTesterOutput && courseSnapshotTesterOutput && courseStateTesterOutput
+        && enrollmentLogTesterOutput && concurrentEnrollTesterOutput && dropAndPromoteTesterOutput
+        && enrollAllTesterOutput && tryEnrollTesterOutput && enrollmentListenerTesterOutput
+        && courseCatalogTesterOutput && studentScheduleTesterOutput && snapshotViewTesterOutput
+        && appendToTesterOutput && waitlistPolicyTesterOutput && bulkPromoteTesterOutput
+        && latencyHistogramTesterOutput && enrollmentMetricsTesterOutput
+        && driverCommandTesterOutput && courseConstructorTesterOutput && saveRosterTesterOutput
+        && escapedRecordLogTesterOutput && corruptedSnapshotTesterOutput && batchModeTesterOutput
+        && lineToRecordTesterOutput && bulkLoadRosterTesterOutput && campusIDIndexTesterOutput
+        && failedLogTesterOutput && synchronousLogTesterOutput && checkpointReplayTesterOutput;
   }
 
   /**
@@ -190,7 +2121,11 @@ public class ExceptionalCourseEnrollmentTester {
    */
   public static void main(String[] args) {
     System.out.println("-----------------------------------------------");
-    System.out.println("runAllTests: " + (runAllTests() ? "Pass" : "Failed!"));
+    boolean passed = runAllTests();
+    System.out.println("runAllTests: " + (passed ? "Pass" : "Failed!"));
+    if (!passed) {
+      System.exit(1); // lets scripts and the build see the failure
+    }
   }
 
 }
@@ -0,0 +1,181 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The IndexedRoster class holds the roster of an ExceptionalCourseEnrollment in insertion
+//        order, with a CampusIDIndex from campusID to position so that any student can be found or
+//        removed without scanning the roster or boxing their campusID.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Students are kept in an array in the order they were added; removing one leaves a hole that is
+ * skipped when listing the roster. When the array is full it is compacted in place if at least
+ * half of it is holes and doubled otherwise, so adding a student is amortized constant time.
+ * Lookups and removals go through the index and are constant time on average.
+ *
+ * Not thread safe: ExceptionalCourseEnrollment guards it with its lock.
+ */
+class IndexedRoster {
+  /** the students in roster order, null where a student was removed; the first end are used */
+  private StudentRecord[] students;
+  /** number of used entries of students, holes included */
+  private int end;
+  /** position in students of each student, keyed by campusID */
+  private final CampusIDIndex index;
+
+  /** Number of students an empty roster has room for before it first grows */
+  private static final int INITIAL_SIZE = 16;
+
+  /**
+   * Creates an empty roster that starts small and grows as students are added
+   */
+  IndexedRoster() {
+    this(INITIAL_SIZE);
+  }
+
+  /**
+   * Creates an empty roster sized for a number of students that are about to be added, for example
+   * when a saved course is restored
+   *
+   * @param expectedSize the number of students the roster is sized for
+   */
+  IndexedRoster(int expectedSize) {
+    expectedSize = Math.max(expectedSize, 4);
+    students = new StudentRecord[expectedSize];
+    index = new CampusIDIndex(expectedSize);
+  }
+
+  /**
+   * Getter for the number of students in the roster
+   *
+   * @return the number of students
+   */
+  int size() {
+    return index.size();
+  }
+
+  /**
+   * Checks if a student is enrolled
+   *
+   * @param campusID the numeric campusID of the student
+   * @return true if the student is in the roster
+   */
+  boolean contains(long campusID) {
+    return index.containsKey(campusID);
+  }
+
+  /**
+   * Returns an enrolled student
+   *
+   * @param campusID the numeric campusID of the student
+   * @return the student, or null if they are not in the roster
+   */
+  StudentRecord get(long campusID) {
+    int position = index.get(campusID);
+    return position == CampusIDIndex.ABSENT ? null : students[position];
+  }
+
+  /**
+   * Adds a student after every student already in the roster. A student with the same campusID is
+   * replaced in place and keeps their position.
+   *
+   * @param student the student to add
+   * @return the student that was replaced, or null if nobody had the same campusID
+   */
+  StudentRecord put(StudentRecord student) {
+    long campusID = student.getCampusIDValue();
+    int position = index.get(campusID);
+    if(position != CampusIDIndex.ABSENT) {
+      StudentRecord replaced = students[position];
+      students[position] = student;
+      return replaced;
+    }
+    if(end == students.length) {
+      makeRoom();
+    }
+    students[end] = student;
+    index.put(campusID, end);
+    end++;
+    return null;
+  }
+
+  /**
+   * Removes a student from the roster
+   *
+   * @param campusID the numeric campusID of the student
+   * @return the removed student, or null if they were not in the roster
+   */
+  StudentRecord remove(long campusID) {
+    int position = index.remove(campusID);
+    if(position == CampusIDIndex.ABSENT) {
+      return null;
+    }
+    StudentRecord removed = students[position];
+    students[position] = null;
+    while(end > 0 && students[end - 1] == null) { // holes at the end are simply reused
+      end--;
+    }
+    return removed;
+  }
+
+  /**
+   * Returns the students in roster order
+   *
+   * @return a new list of the students, the first added first
+   */
+  List<StudentRecord> toList() {
+    ArrayList<StudentRecord> list = new ArrayList<StudentRecord>(size());
+    forEach(list::add);
+    return list;
+  }
+
+  /**
+   * Gives every enrolled student to action, in roster order
+   *
+   * @param action what to do with each student
+   */
+  void forEach(Consumer<StudentRecord> action) {
+    for(int i = 0; i < end; i++) {
+      if(students[i] != null) {
+        action.accept(students[i]);
+      }
+    }
+  }
+
+  /**
+   * Frees the end of the array, by closing the holes if at least half of it is holes and by
+   * doubling it otherwise
+   */
+  private void makeRoom() {
+    if(size() > students.length / 2) {
+      students = Arrays.copyOf(students, students.length * 2);
+      return;
+    }
+    int kept = 0;
+    for(int i = 0; i < end; i++) {
+      if(students[i] != null) {
+        if(kept != i) {
+          students[kept] = students[i];
+          index.put(students[kept].getCampusIDValue(), kept);
+        }
+        kept++;
+      }
+    }
+    Arrays.fill(students, kept, end, null);
+    end = kept;
+  }
+}
@@ -0,0 +1,324 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The IndexedWaitlist class holds the waitlist of an ExceptionalCourseEnrollment in a
+//        binary heap ordered by a WaitlistPolicy, with an index from campusID to heap position so
+//        that any student can be found or removed without scanning the waitlist.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: https://en.wikipedia.org/wiki/Binary_heap
+//                 -Referenced for sift up and sift down
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * contains() is constant time; add(), poll() and remove() are O(log n). The head of the heap is the
+ * next student to be promoted. Listing the students in promotion order costs a sort of the waitlist
+ * and is only done when asked for. Finding the position of one student only visits the students
+ * ahead of them and their children in the heap, so it costs O(position) comparisons rather than
+ * O(n).
+ *
+ * Not thread safe: ExceptionalCourseEnrollment guards it with its lock.
+ */
+class IndexedWaitlist {
+  /** A waitlisted student and the order they joined the waitlist in */
+  private static class Entry {
+    private final StudentRecord student;
+    private final long arrival;
+
+    private Entry(StudentRecord student, long arrival) {
+      this.student = student;
+      this.arrival = arrival;
+    }
+  }
+
+  /** the heap, the first size entries are used */
+  private Entry[] heap;
+  /** number of students in the waitlist */
+  private int size;
+  /** position in heap of each student, keyed by campusID */
+  private final CampusIDIndex index;
+  /** arrival number given to the next student added */
+  private long nextArrival;
+  /** the policy, and the order it induces with arrival breaking ties */
+  private WaitlistPolicy policy;
+  private Comparator<Entry> order;
+
+  /** Number of entries an empty waitlist has room for before it first grows */
+  private static final int INITIAL_SIZE = 16;
+
+  /**
+   * Creates an empty FIFO waitlist that starts small and grows as students are added
+   */
+  IndexedWaitlist() {
+    this(INITIAL_SIZE);
+  }
+
+  /**
+   * Creates an empty FIFO waitlist sized for a number of students that are about to be added, for
+   * example when a saved course is restored
+   *
+   * @param expectedSize the number of students the waitlist is sized for, never a capacity that
+   *                     may not be reached
+   */
+  IndexedWaitlist(int expectedSize) {
+    expectedSize = Math.max(expectedSize, 4);
+    heap = new Entry[expectedSize];
+    index = new CampusIDIndex(expectedSize);
+    setPolicy(WaitlistPolicy.FIFO);
+  }
+
+  /**
+   * Getter for the ordering policy
+   *
+   * @return the policy ordering this waitlist
+   */
+  WaitlistPolicy getPolicy() {
+    return policy;
+  }
+
+  /**
+   * Changes the ordering policy and reorders the waitlist in O(n). Students keep their arrival
+   * order for breaking ties.
+   *
+   * @param policy the new policy
+   */
+  void setPolicy(WaitlistPolicy policy) {
+    this.policy = policy;
+    Comparator<Entry> byPolicy = (a, b) -> policy.compare(a.student, b.student);
+    order = byPolicy.thenComparingLong(e -> e.arrival);
+    for(int i = size / 2 - 1; i >= 0; i--) {
+      siftDown(i);
+    }
+  }
+
+  /**
+   * Getter for the number of students in the waitlist
+   *
+   * @return the number of students
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Checks if the waitlist is empty
+   *
+   * @return true if no student is waitlisted
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Checks if a student is waitlisted
+   *
+   * @param campusID the numeric campusID of the student
+   * @return true if the student is in the waitlist
+   */
+  boolean contains(long campusID) {
+    return index.containsKey(campusID);
+  }
+
+  /**
+   * Adds a student to the waitlist, after every student already in it
+   *
+   * @param student the student to add
+   * @return false if a student with the same campusID was already waitlisted, in which case
+   *         nothing changes
+   */
+  boolean add(StudentRecord student) {
+    long key = student.getCampusIDValue();
+    if(index.containsKey(key)) {
+      return false;
+    }
+    if(size == heap.length) {
+      heap = Arrays.copyOf(heap, size * 2);
+    }
+    heap[size] = new Entry(student, nextArrival++);
+    index.put(key, size);
+    size++;
+    siftUp(size - 1);
+    return true;
+  }
+
+  /**
+   * Returns the next student to be promoted without removing them
+   *
+   * @return the head of the waitlist, or null if it is empty
+   */
+  StudentRecord peek() {
+    return size == 0 ? null : heap[0].student;
+  }
+
+  /**
+   * Removes and returns the next student to be promoted
+   *
+   * @return the former head of the waitlist, or null if it is empty
+   */
+  StudentRecord poll() {
+    return size == 0 ? null : removeAt(0);
+  }
+
+  /**
+   * Removes a student from anywhere in the waitlist
+   *
+   * @param campusID the numeric campusID of the student
+   * @return the removed student, or null if they were not waitlisted
+   */
+  StudentRecord remove(long campusID) {
+    int position = index.get(campusID);
+    return position == CampusIDIndex.ABSENT ? null : removeAt(position);
+  }
+
+  /**
+   * Returns the position of a student in promotion order, counting from 1 for the head. Costs
+   * O(position) comparisons, see countAhead().
+   *
+   * @param campusID the numeric campusID of the student
+   * @return the position of the student, or -1 if they are not waitlisted
+   */
+  int positionOf(long campusID) {
+    int at = index.get(campusID);
+    if(at == CampusIDIndex.ABSENT) {
+      return -1;
+    }
+    return countAhead(0, heap[at]) + 1;
+  }
+
+  /**
+   * Counts the entries promoted before target in the subtree rooted at a heap position. An entry
+   * that is not ahead of target has no descendant ahead of it either, so its subtree is skipped:
+   * only the entries ahead of target and their children are compared.
+   *
+   * @param position the root of the subtree
+   * @param target   the entry whose position is wanted
+   * @return the number of entries of the subtree that come before target
+   */
+  private int countAhead(int position, Entry target) {
+    if(position >= size || order.compare(heap[position], target) >= 0) {
+      return 0;
+    }
+    return 1 + countAhead(2 * position + 1, target) + countAhead(2 * position + 2, target);
+  }
+
+  /**
+   * Returns the waitlisted students in promotion order
+   *
+   * @return a new list of the students, the next to be promoted first
+   */
+  List<StudentRecord> toList() {
+    Entry[] sorted = Arrays.copyOf(heap, size);
+    Arrays.sort(sorted, order);
+    ArrayList<StudentRecord> students = new ArrayList<StudentRecord>(size);
+    for(Entry entry : sorted) {
+      students.add(entry.student);
+    }
+    return students;
+  }
+
+  /**
+   * Gives every waitlisted student to action in heap order, which is not promotion order. Costs
+   * O(n) where toList() sorts in O(n log n), for callers that do not need the order.
+   *
+   * @param action what to do with each student
+   */
+  void forEach(Consumer<StudentRecord> action) {
+    for(int i = 0; i < size; i++) {
+      action.accept(heap[i].student);
+    }
+  }
+
+  /**
+   * Removes the entry at a heap position and restores the heap
+   *
+   * @param position the position to remove
+   * @return the removed student
+   */
+  private StudentRecord removeAt(int position) {
+    Entry removed = heap[position];
+    index.remove(removed.student.getCampusIDValue());
+    size--;
+    if(position != size) {
+      // the last entry fills the hole, then moves up or down to where it belongs
+      heap[position] = heap[size];
+      index.put(heap[position].student.getCampusIDValue(), position);
+      heap[size] = null;
+      if(!siftUp(position)) {
+        siftDown(position);
+      }
+    }
+    else {
+      heap[size] = null;
+    }
+    return removed.student;
+  }
+
+  /**
+   * Moves the entry at a position up while it is smaller than its parent
+   *
+   * @param position the position of the entry
+   * @return true if the entry moved
+   */
+  private boolean siftUp(int position) {
+    Entry entry = heap[position];
+    int start = position;
+    while(position > 0) {
+      int parent = (position - 1) / 2;
+      if(order.compare(entry, heap[parent]) >= 0) {
+        break;
+      }
+      place(heap[parent], position);
+      position = parent;
+    }
+    place(entry, position);
+    return position != start;
+  }
+
+  /**
+   * Moves the entry at a position down while one of its children is smaller
+   *
+   * @param position the position of the entry
+   */
+  private void siftDown(int position) {
+    Entry entry = heap[position];
+    while(true) {
+      int child = 2 * position + 1;
+      if(child >= size) {
+        break;
+      }
+      if(child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) {
+        child++;
+      }
+      if(order.compare(heap[child], entry) >= 0) {
+        break;
+      }
+      place(heap[child], position);
+      position = child;
+    }
+    place(entry, position);
+  }
+
+  /**
+   * Puts an entry at a heap position and records the position in the index
+   *
+   * @param entry    the entry
+   * @param position its new position
+   */
+  private void place(Entry entry, int position) {
+    heap[position] = entry;
+    index.put(entry.student.getCampusIDValue(), position);
+  }
+}
@@ -0,0 +1,194 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The LatencyHistogram class counts latencies in logarithmic buckets with a bounded
+//        relative error, in the style of HdrHistogram, so that percentiles such as p50, p99 and
+//        p999 can be reported for millions of operations in constant memory.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: http://hdrhistogram.org/
+//                 -Referenced for the bucket layout with sub-buckets in each power of two
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Values below 128 have a bucket each. Above that, every power of two is split into 64 equal
+ * buckets, so a value is reported with less than 1/64 (about 1.6%) relative error. Any
+ * non-negative long can be recorded; negative values are counted as zero.
+ *
+ * Recording is lock-free and may be done from many threads at once. Reading while other threads
+ * record gives a close but not exact picture, which is enough for reporting.
+ */
+public class LatencyHistogram {
+  /** Values below SUB_BUCKETS have their own bucket */
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  /** Number of buckets each power of two above SUB_BUCKETS is split into */
+  private static final int HALF = SUB_BUCKETS / 2;
+  /** Number of buckets needed to cover every non-negative long */
+  private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * HALF;
+
+  /** number of values recorded in each bucket */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  /** number of values recorded */
+  private final LongAdder count = new LongAdder();
+  /** sum of the values recorded, for the mean */
+  private final LongAdder sum = new LongAdder();
+  /** largest value recorded */
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records one value, typically a latency in nanoseconds
+   *
+   * @param value the value to record
+   */
+  public void record(long value) {
+    if(value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketOf(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Adds every value recorded in another histogram to this one
+   *
+   * @param other the histogram to add
+   */
+  public void add(LatencyHistogram other) {
+    for(int i = 0; i < BUCKETS; i++) {
+      long n = other.counts.get(i);
+      if(n != 0) {
+        counts.addAndGet(i, n);
+      }
+    }
+    count.add(other.count.sum());
+    sum.add(other.sum.sum());
+    max.accumulate(other.max.get());
+  }
+
+  /**
+   * Forgets every value recorded so far
+   */
+  public void reset() {
+    for(int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.reset();
+  }
+
+  /**
+   * Getter for the number of values recorded
+   *
+   * @return the number of values
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  /**
+   * Getter for the largest value recorded
+   *
+   * @return the largest value, exactly, or 0 if nothing was recorded
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of the values recorded
+   *
+   * @return the exact mean, or 0 if nothing was recorded
+   */
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Returns the value below or at which a given percentage of the recorded values fall
+   *
+   * @param percentile the percentage, between 0 and 100, for example 99.9 for p999
+   * @return the highest value of the bucket holding that percentile, never more than getMax(), or
+   *         0 if nothing was recorded
+   * @throws IllegalArgumentException with message "Percentile must be between 0 and 100!" if
+   *                                  percentile is out of range
+   */
+  public long getValueAtPercentile(double percentile) {
+    if(!(percentile >= 0 && percentile <= 100)) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+    }
+    long total = count.sum();
+    if(total == 0) {
+      return 0;
+    }
+    // the rank of the value, counting from 1, that the percentile refers to
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for(int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if(seen >= rank) {
+        return Math.min(highestValueOf(i), max.get());
+      }
+    }
+    return max.get();
+  }
+
+  /**
+   * Returns a one line summary in the following format, with values divided by a unit: <BR>
+   * count=N mean=X p50=X p99=X p999=X max=X
+   *
+   * @param unit the value of one unit, for example 1000 to print nanoseconds as microseconds
+   * @return the summary
+   */
+  public String summary(double unit) {
+    return String.format("count=%d mean=%.1f p50=%.1f p99=%.1f p999=%.1f max=%.1f", getCount(),
+        getMean() / unit, getValueAtPercentile(50) / unit, getValueAtPercentile(99) / unit,
+        getValueAtPercentile(99.9) / unit, getMax() / unit);
+  }
+
+  /**
+   * Returns the bucket a value is counted in
+   *
+   * @param value a non-negative value
+   * @return the index of its bucket
+   */
+  static int bucketOf(long value) {
+    if(value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    // shift so that value >>> shift is between HALF and SUB_BUCKETS - 1
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+    return SUB_BUCKETS + (shift - 1) * HALF + (int) ((value >>> shift) - HALF);
+  }
+
+  /**
+   * Returns the highest value counted in a bucket
+   *
+   * @param bucket the index of the bucket
+   * @return the highest value of the bucket
+   */
+  static long highestValueOf(int bucket) {
+    if(bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+    long subBucket = (bucket - SUB_BUCKETS) % HALF + HALF;
+    long next = (subBucket + 1) << shift;
+    return next <= 0 ? Long.MAX_VALUE : next - 1; // the last bucket ends at Long.MAX_VALUE
+  }
+}
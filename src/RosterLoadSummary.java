@@ -0,0 +1,123 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The RosterLoadSummary class counts what happened to each line of a roster file loaded
+//        with ExceptionalCourseEnrollment.bulkLoadRoster(), so the load can be reported once at
+//        the end instead of printing a message per student.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+public class RosterLoadSummary {
+  /** number of students enrolled from the file */
+  private int loaded;
+  /** number of lines that are not a valid string representation of a StudentRecord */
+  private int malformed;
+  /** number of students that were already enrolled, or listed twice in the file */
+  private int duplicates;
+  /** number of students that have not satisfied the prerequisites */
+  private int missingPrerequisites;
+  /** number of students that did not fit in the roster */
+  private int overCapacity;
+
+  /** Records that a student was enrolled */
+  void countLoaded() {
+    loaded++;
+  }
+
+  /** Records that a line could not be parsed to a StudentRecord */
+  void countMalformed() {
+    malformed++;
+  }
+
+  /** Records that a student was already enrolled */
+  void countDuplicate() {
+    duplicates++;
+  }
+
+  /** Records that a student has not satisfied the prerequisites */
+  void countMissingPrerequisites() {
+    missingPrerequisites++;
+  }
+
+  /** Records that a student was not enrolled because the roster was full */
+  void countOverCapacity() {
+    overCapacity++;
+  }
+
+  /**
+   * Getter for the number of students enrolled from the file
+   *
+   * @return the number of students enrolled
+   */
+  public int getLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Getter for the number of lines that could not be parsed to a StudentRecord
+   *
+   * @return the number of malformed lines
+   */
+  public int getMalformed() {
+    return malformed;
+  }
+
+  /**
+   * Getter for the number of students skipped because they were already enrolled
+   *
+   * @return the number of duplicate students
+   */
+  public int getDuplicates() {
+    return duplicates;
+  }
+
+  /**
+   * Getter for the number of students skipped because they have not satisfied the prerequisites
+   *
+   * @return the number of students missing prerequisites
+   */
+  public int getMissingPrerequisites() {
+    return missingPrerequisites;
+  }
+
+  /**
+   * Getter for the number of students skipped because the roster was full
+   *
+   * @return the number of students over capacity
+   */
+  public int getOverCapacity() {
+    return overCapacity;
+  }
+
+  /**
+   * Returns the number of students that were not enrolled, for any reason
+   *
+   * @return the number of rejected lines
+   */
+  public int getRejected() {
+    return malformed + duplicates + missingPrerequisites + overCapacity;
+  }
+
+  /**
+   * Returns a one line summary of the load in the following format: <BR>
+   * Loaded X students (Y rejected: A malformed, B duplicates, C missing prerequisites, D over
+   * capacity)
+   *
+   * @return the summary of the load as described above
+   */
+  @Override
+  public String toString() {
+    return "Loaded " + loaded + " students (" + getRejected() + " rejected: " + malformed
+        + " malformed, " + duplicates + " duplicates, " + missingPrerequisites
+        + " missing prerequisites, " + overCapacity + " over capacity)";
+  }
+}
@@ -0,0 +1,89 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The ScheduleEntry class describes one course in a student's schedule, as returned by
+//        CourseCatalog.getSchedule(): the course, whether the student is enrolled or waitlisted,
+//        and their position in the waitlist.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+public class ScheduleEntry {
+  /** Whether a student is in the roster or the waitlist of a course */
+  public enum Status {
+    /** The student is in the roster */
+    ENROLLED,
+    /** The student is on the waitlist */
+    WAITLISTED
+  }
+
+  /** the course */
+  private final ExceptionalCourseEnrollment course;
+  /** whether the student is enrolled or waitlisted */
+  private final Status status;
+  /** position in the waitlist counting from 1, or 0 if the student is enrolled */
+  private final int waitlistPosition;
+
+  /**
+   * Creates a schedule entry
+   *
+   * @param course           the course
+   * @param status           whether the student is enrolled or waitlisted
+   * @param waitlistPosition the position in the waitlist, or 0 if the student is enrolled
+   */
+  ScheduleEntry(ExceptionalCourseEnrollment course, Status status, int waitlistPosition) {
+    this.course = course;
+    this.status = status;
+    this.waitlistPosition = waitlistPosition;
+  }
+
+  /**
+   * Getter for the course of this entry
+   *
+   * @return the course
+   */
+  public ExceptionalCourseEnrollment getCourse() {
+    return course;
+  }
+
+  /**
+   * Getter for whether the student is enrolled or waitlisted
+   *
+   * @return the status of the student in the course
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Getter for the position of the student in the waitlist, read when the schedule was built
+   *
+   * @return the position counting from 1, or 0 if the student is enrolled
+   */
+  public int getWaitlistPosition() {
+    return waitlistPosition;
+  }
+
+  /**
+   * Returns a String representation of this entry in one of the following formats: <BR>
+   * courseName: enrolled <BR>
+   * courseName: waitlisted (position X)
+   *
+   * @return the string representation of this entry
+   */
+  @Override
+  public String toString() {
+    if(status == Status.ENROLLED) {
+      return course.getName() + ": enrolled";
+    }
+    return course.getName() + ": waitlisted (position " + waitlistPosition + ")";
+  }
+}
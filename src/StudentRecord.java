@@ -16,9 +16,13 @@
 // Online Sources: NONE
 //
 ///////////////////////////////////////////////////////////////////////////////
+import java.io.IOException;
 import java.util.zip.DataFormatException;
 public class StudentRecord {
-  private String campusID;
+  /** Largest value a 10-digit campusID can take */
+  private static final long MAX_CAMPUS_ID = 9999999999L;
+
+  private long campusID; // the 10 digits of the campusID, see formatCampusID()
   private String email;
   private boolean isPreReqSatisfied;
   private String name;
@@ -27,22 +31,43 @@ public class StudentRecord {
    * 
    * @param name     the name of the student
    * @param email    the email of the student
-   * @param campusID the campusID of the student
+   * @param campusID the campusID of the student, stored as a long
    * @param preReq   the boolean representing if the student satisfies the prerequisites
    * @throws DataFormatException with message "Bad name, email, or campusID!" if name or email or
    *                             campusID are NOT valid
    */
   public StudentRecord(String name, String email, String campusID, boolean preReq)
       throws DataFormatException {
+    // Checks to make sure all of the parameters are valid inputs
+    if(!isValidName(name) || !isValidEmail(email) || !isValidCampusID(campusID)) {
+      throw new DataFormatException("Bad name, email, or campusID!");
+    }
     this.name = name;
     this.email = email;
-    this.campusID = campusID;
+    this.campusID = parseCampusID(campusID);
     isPreReqSatisfied = preReq;
-    
-    // Checks to make sure all of the parameters are valid inputs
+  }
+
+  /**
+   * Constructor for a student record object taking an already parsed campusID. Assigns values to
+   * all fields.
+   * 
+   * @param name     the name of the student
+   * @param email    the email of the student
+   * @param campusID the campusID of the student as returned by parseCampusID()
+   * @param preReq   the boolean representing if the student satisfies the prerequisites
+   * @throws DataFormatException with message "Bad name, email, or campusID!" if name or email or
+   *                             campusID are NOT valid
+   */
+  public StudentRecord(String name, String email, long campusID, boolean preReq)
+      throws DataFormatException {
     if(!isValidName(name) || !isValidEmail(email) || !isValidCampusID(campusID)) {
       throw new DataFormatException("Bad name, email, or campusID!");
     }
+    this.name = name;
+    this.email = email;
+    this.campusID = campusID;
+    isPreReqSatisfied = preReq;
   }
 
   /**
@@ -79,7 +104,74 @@ public class StudentRecord {
    *         10-digits. Extra leading and trailing whitespace should be disregarded.
    */
   public static boolean isValidCampusID(String campusID) {
-	return campusID != null && campusID.trim().length() == 10;
+	return campusID != null && parseCampusID(campusID) >= 0;
+  }
+
+  /**
+   * Validator method for an already parsed campusID
+   * 
+   * @param campusID the student's campusID as a long
+   * @return true if and only if the campusID has at most 10 digits and is not negative
+   */
+  public static boolean isValidCampusID(long campusID) {
+    return campusID >= 0 && campusID <= MAX_CAMPUS_ID;
+  }
+
+  /**
+   * Parses a campusID made of exactly 10 digits, disregarding leading and trailing whitespace.
+   * Leading zeros are allowed.
+   * 
+   * @param campusID a non-null string representing a campusID
+   * @return the campusID as a long, or -1 if campusID is not made of exactly 10 digits
+   */
+  public static long parseCampusID(String campusID) {
+    return parseCampusID(campusID, 0, campusID.length());
+  }
+
+  /**
+   * Parses the campusID found between start (inclusive) and end (exclusive) in text, disregarding
+   * leading and trailing whitespace within that range. Does not create any intermediate string.
+   * 
+   * @param text  the characters containing the campusID
+   * @param start the index of the first character of the campusID
+   * @param end   the index after the last character of the campusID
+   * @return the campusID as a long, or -1 if the range is not made of exactly 10 digits
+   */
+  public static long parseCampusID(CharSequence text, int start, int end) {
+    // Skip leading and trailing whitespace without creating a trimmed copy
+    while(start < end && Character.isWhitespace(text.charAt(start))) {
+      start++;
+    }
+    while(end > start && Character.isWhitespace(text.charAt(end - 1))) {
+      end--;
+    }
+    if(end - start != 10) {
+      return -1;
+    }
+    long value = 0;
+    for(int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      if(c < '0' || c > '9') {
+        return -1;
+      }
+      value = value * 10 + (c - '0');
+    }
+    return value;
+  }
+
+  /**
+   * Returns the canonical string form of a campusID: exactly 10 digits, keeping leading zeros
+   * 
+   * @param campusID a valid campusID as a long
+   * @return the 10-digit string representation of campusID
+   */
+  public static String formatCampusID(long campusID) {
+    char[] digits = new char[10];
+    for(int i = digits.length - 1; i >= 0; i--) {
+      digits[i] = (char) ('0' + campusID % 10);
+      campusID /= 10;
+    }
+    return new String(digits);
   }
 
   /**
@@ -103,10 +195,19 @@ public class StudentRecord {
   /**
    * Getter method for a student's campusID
    * 
-   * @return the student's campusID
+   * @return the student's campusID in its normalized form
    */
   public String getCampusID() {
-	return campusID;
+	return formatCampusID(campusID);
+  }
+
+  /**
+   * Getter method for a student's campusID as a number, used as the lookup key for this student
+   * 
+   * @return the student's campusID as a long
+   */
+  public long getCampusIDValue() {
+    return campusID;
   }
 
   /**
@@ -124,17 +225,26 @@ public class StudentRecord {
    * @return true if anObject is instanceof StudentRecord and has the same campusID as this
    *         StudentRecord.
    */
+  @Override
   public boolean equals(Object other) {
-    // makes sure inputted object is StudentRecord
-	boolean instanceOf = other instanceof StudentRecord;
-	
-	String[] parts = null;
-	boolean sameCampusID = false;
-	if(instanceOf) { // makes sure that only StudentRecord objects will return true
-	  parts = other.toString().trim().split(", ");
-	  sameCampusID = campusID.equals(parts[2].trim());
-	}
-	return instanceOf && sameCampusID;
+    if(this == other) {
+      return true;
+    }
+    // makes sure that only StudentRecord objects will return true
+    if(!(other instanceof StudentRecord)) {
+      return false;
+    }
+    return campusID == ((StudentRecord) other).campusID;
+  }
+
+  /**
+   * Returns a hash code for this StudentRecord, consistent with equals()
+   * 
+   * @return the hash code of this student's campusID
+   */
+  @Override
+  public int hashCode() {
+    return Long.hashCode(campusID);
   }
 
 
@@ -147,6 +257,68 @@ public class StudentRecord {
    */
   @Override
   public String toString() {
-	return name + ", " + email + ", " + campusID + ", " + isPreReqSatisfied;
+	return name + ", " + email + ", " + getCampusID() + ", " + isPreReqSatisfied;
+  }
+
+  /**
+   * Writes the same text as toString() to out, without building any intermediate string
+   * 
+   * @param out where to write the string representation of this student record
+   * @throws IOException if out could not be written to
+   */
+  public void appendTo(Appendable out) throws IOException {
+    out.append(name).append(", ").append(email).append(", ");
+    for(long divisor = 1000000000L; divisor > 0; divisor /= 10) { // the 10 digits, zero-padded
+      out.append((char) ('0' + campusID / divisor % 10));
+    }
+    out.append(", ").append(isPreReqSatisfied ? "true" : "false");
+  }
+
+  /**
+   * Writes this student record in the format of toString(), except that a backslash, a comma, a
+   * carriage return or a line feed in the name or email is written as \\, \,, \r or \n. Unlike the
+   * text of toString(), this can always be split back into the same fields, even if the name
+   * contains ", ", and it always fits on one line. It is read back by
+   * ExceptionalCourseEnrollment.escapedLineToRecord().
+   * 
+   * @param out where to write the escaped representation of this student record
+   * @throws IOException if out could not be written to
+   */
+  public void appendEscapedTo(Appendable out) throws IOException {
+    appendEscaped(out, name);
+    out.append(", ");
+    appendEscaped(out, email);
+    out.append(", ");
+    for(long divisor = 1000000000L; divisor > 0; divisor /= 10) { // the 10 digits, zero-padded
+      out.append((char) ('0' + campusID / divisor % 10));
+    }
+    out.append(", ").append(isPreReqSatisfied ? "true" : "false");
+  }
+
+  /**
+   * Writes a field with its backslashes, commas and line breaks escaped, see appendEscapedTo()
+   * 
+   * @param out   where to write the field
+   * @param field the text of the field
+   * @throws IOException if out could not be written to
+   */
+  static void appendEscaped(Appendable out, String field) throws IOException {
+    for(int i = 0; i < field.length(); i++) {
+      char c = field.charAt(i);
+      switch(c) {
+        case '\\':
+        case ',':
+          out.append('\\').append(c);
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        default:
+          out.append(c);
+      }
+    }
   }
 }
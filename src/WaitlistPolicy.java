@@ -0,0 +1,44 @@
+///////////////////////////////////////////////////////////////////////////////
+//
+// Title: The WaitlistPolicy interface decides the order in which waitlisted students of an
+//        ExceptionalCourseEnrollment are promoted into the roster.
+//
+// Course: CS 300 Fall 2023
+//
+// Author: Remington Reichmann
+// Email: rreichmann@wisc.edu
+// Lecturer: Mouna Kacem
+//
+///////////////////////////////////////////////////////////////////////////////
+//
+// Persons: NONE
+// Online Sources: NONE
+//
+///////////////////////////////////////////////////////////////////////////////
+import java.util.Comparator;
+
+/**
+ * A policy compares two waitlisted students; the smaller one is promoted first. Students the policy
+ * considers equal are promoted in the order they joined the waitlist, so every policy is fair among
+ * equals and FIFO simply considers every student equal.
+ */
+public interface WaitlistPolicy extends Comparator<StudentRecord> {
+  /** Students are promoted in the order they joined the waitlist */
+  WaitlistPolicy FIFO = (a, b) -> 0;
+
+  /**
+   * Creates a policy from any ordering of students, for example by a standing kept outside of the
+   * StudentRecord
+   *
+   * @param order the ordering of students, students it considers equal keep their arrival order
+   * @return the policy ordering the waitlist by order
+   * @throws IllegalArgumentException with message "Waitlist order must not be null!" if order is
+   *                                  null
+   */
+  static WaitlistPolicy of(Comparator<StudentRecord> order) {
+    if(order == null) {
+      throw new IllegalArgumentException("Waitlist order must not be null!");
+    }
+    return order::compare;
+  }
+}